@@ -1,14 +1,13 @@
 package org.example.captcha.service;
 
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.example.captcha.dto.CaptchaRO;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
 
@@ -21,8 +20,23 @@ public class CaptchaService {
     private static final String CAPTCHA_DIGITS = "0123456789";
     private static final Random random = new Random();
 
-    // 验证码存储
-    private final Map<UUID, CaptchaData> captchaMap = new HashMap<>();
+    // 验证码有效期
+    @Value("${captcha.ttl-ms:300000}")
+    private long ttlMillis;
+    // 最多保存的验证码数量
+    @Value("${captcha.max-entries:100000}")
+    private int maxEntries;
+    // 过期清理的时间轮刻度
+    @Value("${captcha.tick-ms:1000}")
+    private long tickMillis;
+
+    // 验证码存储（线程安全、有容量上限）
+    private CaptchaStore captchaStore;
+
+    @PostConstruct
+    public void init() {
+        captchaStore = new CaptchaStore(ttlMillis, tickMillis, maxEntries, System.currentTimeMillis());
+    }
 
     // 生成随机验证码字符串
     private static String generateText(int length, boolean isDigits) {
@@ -43,27 +57,24 @@ public class CaptchaService {
                 generateText(length, isDigits),
                 LocalDateTime.now()
         );
-        captchaMap.put(captchaData.getId(), captchaData);
+        captchaStore.put(captchaData, System.currentTimeMillis());
         return captchaData;
     }
 
     // 验证
     public boolean validateCaptcha(CaptchaRO ro) {
-        CaptchaData captchaData = captchaMap.get(ro.id);
+        // 验证码只能使用一次，取出即删除，并发的重复提交只有一个能取到
+        CaptchaData captchaData = captchaStore.remove(ro.id, System.currentTimeMillis());
         if (captchaData == null) {
             return false;
         }
-        // 验证码只能使用一次
-        captchaMap.remove(ro.id);
         return captchaData.getCode().equalsIgnoreCase(ro.value); //忽略大小写
     }
 
-    // 定时清理过期验证码，每隔 5 分钟清理一次
-    @Scheduled(fixedRate = 5 * 60 * 1000)
-    private void cleanExpiredCaptcha() {
-        captchaMap.entrySet().removeIf(
-            entry -> entry.getValue().getGenerateTime().plusMinutes(5).isBefore(LocalDateTime.now())
-        );
+    // 时间轮每个刻度前进一次，只回收到期的验证码
+    @Scheduled(fixedRateString = "${captcha.tick-ms:1000}")
+    public void cleanExpiredCaptcha() {
+        captchaStore.advance(System.currentTimeMillis());
     }
 }
 
@@ -0,0 +1,145 @@
+package org.example.captcha.service;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 验证码存储
+ * 验证码保存在 ConcurrentHashMap 中，同时按过期时刻登记到时间轮的槽位；
+ * 时间轮每走一格只处理该槽位中到期的验证码，回收开销与过期数量成正比，不需要遍历整个存储。
+ * 登记的验证码总数有上限，满了以后淘汰最早过期的，被刷接口时内存也不会增长
+ */
+public class CaptchaStore {
+
+    private final ConcurrentHashMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<UUID>[] slots;
+    private final long ttlMillis;
+    private final long tickMillis;
+    private final int capacity;
+    // 时间轮中登记的验证码数（含已被使用、尚未轮到清理的），以它为准控制内存上限
+    private final AtomicInteger pending = new AtomicInteger();
+    // 时间轮当前指向的刻度
+    private volatile long cursor;
+
+    @SuppressWarnings("unchecked")
+    public CaptchaStore(long ttlMillis, long tickMillis, int capacity, long nowMillis) {
+        if (ttlMillis < 1 || tickMillis < 1 || capacity < 1) {
+            throw new IllegalArgumentException("验证码存储参数错误");
+        }
+        this.ttlMillis = ttlMillis;
+        this.tickMillis = tickMillis;
+        this.capacity = capacity;
+        // 槽位数覆盖一个完整的有效期，验证码不会在到期前被轮到
+        int wheelSize = (int) ((ttlMillis + tickMillis - 1) / tickMillis) + 2;
+        this.slots = new ConcurrentLinkedQueue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.cursor = nowMillis / tickMillis;
+    }
+
+    /**
+     * 保存验证码，已满时先淘汰最早过期的
+     */
+    public void put(CaptchaData data, long nowMillis) {
+        while (pending.get() >= capacity) {
+            if (!evictEarliest()) {
+                break;
+            }
+        }
+        long expiresAt = nowMillis + ttlMillis;
+        entries.put(data.getId(), new Entry(data, expiresAt));
+        schedule(data.getId(), expiresAt);
+        pending.incrementAndGet();
+    }
+
+    /**
+     * 取出并删除验证码（只能使用一次），不存在或已过期返回 null
+     */
+    public CaptchaData remove(UUID id, long nowMillis) {
+        if (id == null) {
+            return null;
+        }
+        Entry entry = entries.remove(id);
+        if (entry == null || entry.expiresAt <= nowMillis) {
+            return null;
+        }
+        return entry.data;
+    }
+
+    /**
+     * 时间轮前进到当前时刻，回收经过的槽位中到期的验证码，返回回收数量
+     */
+    public int advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        int reclaimed = 0;
+        synchronized (this) {
+            // 停顿超过一圈时，每个槽位只需要处理一次
+            long start = Math.max(cursor + 1, target - slots.length + 1);
+            for (long tick = start; tick <= target; tick++) {
+                reclaimed += drain(slots[(int) (tick % slots.length)], nowMillis);
+            }
+            cursor = Math.max(cursor, target);
+        }
+        return reclaimed;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private int drain(ConcurrentLinkedQueue<UUID> slot, long nowMillis) {
+        int reclaimed = 0;
+        int count = slot.size();
+        for (int i = 0; i < count; i++) {
+            UUID id = slot.poll();
+            if (id == null) {
+                break;
+            }
+            Entry entry = entries.get(id);
+            if (entry != null && entry.expiresAt > nowMillis) {
+                // 时钟回拨或定时任务延迟导致提前轮到，重新登记
+                schedule(id, entry.expiresAt);
+                continue;
+            }
+            pending.decrementAndGet();
+            if (entry != null && entries.remove(id, entry)) {
+                reclaimed++;
+            }
+        }
+        return reclaimed;
+    }
+
+    // 从当前刻度之后的第一个非空槽位淘汰一个验证码
+    private boolean evictEarliest() {
+        long from = cursor + 1;
+        for (int i = 0; i < slots.length; i++) {
+            UUID id = slots[(int) ((from + i) % slots.length)].poll();
+            if (id != null) {
+                pending.decrementAndGet();
+                entries.remove(id);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void schedule(UUID id, long expiresAt) {
+        long tick = (expiresAt + tickMillis - 1) / tickMillis;
+        // 过期刻度不早于下一格，也不超出一圈
+        tick = Math.min(Math.max(tick, cursor + 1), cursor + slots.length - 1);
+        slots[(int) (tick % slots.length)].add(id);
+    }
+
+    private static final class Entry {
+        final CaptchaData data;
+        final long expiresAt;
+
+        Entry(CaptchaData data, long expiresAt) {
+            this.data = data;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
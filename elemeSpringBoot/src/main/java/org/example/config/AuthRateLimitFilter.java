@@ -0,0 +1,71 @@
+package org.example.config;
+
+import jakarta.annotation.Resource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.service.impl.AuthRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * 认证接口按客户端 IP 限流
+ * 在请求体解析之前执行，超限直接返回 429；手机号、邮箱维度的限流在接口读取参数后、调用服务之前进行
+ */
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> LIMITED_PATHS = Set.of("/user/login", "/user/register", "/user/sendVerifyCode");
+
+    @Resource
+    private AuthRateLimiter authRateLimiter;
+
+    //前面可信反向代理的层数，0 表示直接取连接的远端地址；
+    //大于 0 时取 X-Forwarded-For 从右数第 N 个地址（由最外层代理追加），更靠左的地址由客户端填写，不可信
+    @Value("${auth.rate-limit.trusted-proxies:0}")
+    private int trustedProxies;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !LIMITED_PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!authRateLimiter.allowIp(clientIp(request))) {
+            reject(response);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * 返回 429 和统一的错误信息
+     */
+    private static void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"code\":429,\"message\":\"请求过于频繁，请稍后再试\"}");
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (trustedProxies > 0) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                String[] hops = forwarded.split(",");
+                return hops[Math.max(0, hops.length - trustedProxies)].trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.config;
+
+import org.example.util.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    private static final String MAX_ORDER_ID_SQL =
+            "SELECT GREATEST(COALESCE((SELECT MAX(id) FROM user_order), 0), " +
+            "COALESCE((SELECT MAX(id) FROM user_order_archive), 0))";
+
+    // 订单 ID 生成器，多实例部署时每个实例配置不同的节点号（0-31）
+    // 启动时从已落库的最大订单 ID 之后继续，重启前借用的未来毫秒或重启后时钟回拨都不会发出重复 ID
+    @Bean
+    public SnowflakeIdGenerator orderIdGenerator(@Value("${order.id.node-id:0}") long nodeId, JdbcTemplate jdbcTemplate) {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(nodeId);
+        try {
+            Long maxId = jdbcTemplate.queryForObject(MAX_ORDER_ID_SQL, Long.class);
+            if (maxId != null && maxId > 0) {
+                generator.advancePast(maxId);
+            }
+        } catch (Exception e) {
+            System.err.println("读取最大订单ID失败, 按当前时钟生成: " + e.getMessage());
+        }
+        return generator;
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.config;
+
+import jakarta.annotation.Resource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.dto.UserProfile;
+import org.example.service.ISessionService;
+import org.example.util.SignedTokenCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 登录令牌解析
+ * 从 Authorization: Bearer 请求头取出令牌，校验通过后把手机号放入请求属性 currentPhone：
+ * signed 模式只校验 HMAC 签名，不访问任何存储，多实例无需共享会话；
+ * session 模式在本机内存会话中查找，同时放入用户资料 currentUser。未登录的请求照常放行
+ */
+@Component
+public class SessionAuthFilter extends OncePerRequestFilter {
+
+    public static final String CURRENT_USER = "currentUser";
+    public static final String CURRENT_PHONE = "currentPhone";
+
+    private static final String BEARER = "Bearer ";
+
+    @Resource
+    private ISessionService sessionService;
+    @Resource
+    private SignedTokenCodec signedTokenCodec;
+
+    //令牌模式：signed 无状态签名令牌 / session 本机内存会话
+    @Value("${user.token.mode:signed}")
+    private String mode;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = resolveToken(request);
+        if (token != null) {
+            if ("session".equals(mode)) {
+                UserProfile profile = sessionService.resolve(token);
+                if (profile != null) {
+                    request.setAttribute(CURRENT_USER, profile);
+                    request.setAttribute(CURRENT_PHONE, profile.getPhoneNumber());
+                }
+            } else {
+                String phoneNumber = signedTokenCodec.verify(token, System.currentTimeMillis() / 1000);
+                if (phoneNumber != null) {
+                    request.setAttribute(CURRENT_PHONE, phoneNumber);
+                }
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * 取出请求头中的令牌，没有时返回 null
+     */
+    public static String resolveToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        String token = header.substring(BEARER.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+}
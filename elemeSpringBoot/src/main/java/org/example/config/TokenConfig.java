@@ -0,0 +1,44 @@
+package org.example.config;
+
+import org.example.util.SignedTokenCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+public class TokenConfig {
+
+    // 登录令牌签名密钥，格式 密钥号:base64密钥,...；多实例部署时所有实例必须配置相同的密钥
+    @Bean
+    public SignedTokenCodec signedTokenCodec(@Value("${user.token.keys:}") String keys,
+                                             @Value("${user.token.active-key-id:}") String activeKeyId) {
+        Map<String, byte[]> parsed = new LinkedHashMap<>();
+        for (String item : keys.split(",")) {
+            String trimmed = item.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int colon = trimmed.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("user.token.keys 格式错误: " + trimmed);
+            }
+            parsed.put(trimmed.substring(0, colon), Base64.getDecoder().decode(trimmed.substring(colon + 1)));
+        }
+        if (parsed.isEmpty()) {
+            // 未配置密钥时生成随机密钥，仅适用于单实例，重启后已签发的令牌失效
+            System.err.println("未配置 user.token.keys，使用随机生成的登录令牌密钥");
+            byte[] key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            parsed.put("local", key);
+            activeKeyId = "local";
+        } else if (activeKeyId.isEmpty()) {
+            activeKeyId = parsed.keySet().iterator().next();
+        }
+        return new SignedTokenCodec(parsed, activeKeyId);
+    }
+}
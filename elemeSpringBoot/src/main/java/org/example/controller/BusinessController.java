@@ -2,9 +2,13 @@ package org.example.controller;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import org.example.dto.MenuDeltaDTO;
+import org.example.dto.SalesBucketDTO;
 import org.example.entity.Business;
 import org.example.response.BusinessResponse;
 import org.example.service.IBusinessService;
+import org.example.service.IMenuSyncService;
+import org.example.service.ISalesStatsService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +27,10 @@ public class BusinessController {
     //资源
     @Resource
     private IBusinessService businessService;
+    @Resource
+    private IMenuSyncService menuSyncService;
+    @Resource
+    private ISalesStatsService salesStatsService;
 
     @PostMapping("/getAll")
     public ResponseEntity<List<Business>> getAll() {
@@ -61,4 +69,34 @@ public class BusinessController {
         }
     }
 
+    /**
+     * 菜单增量同步
+     * 请求参数：ID 商家ID，version 客户端已有的菜单版本（首次可不传）
+     * 版本过旧或未知时返回全量快照（full=true）
+     */
+    @PostMapping("/getMenuDelta")
+    public ResponseEntity<MenuDeltaDTO> getMenuDelta(@RequestBody Map<String, Long> params) {
+        Long id = params.get("ID");
+        if (id == null || id <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        MenuDeltaDTO delta = menuSyncService.getMenuDelta(id.intValue(), params.get("version"));
+        if (delta == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(delta, HttpStatus.OK);
+    }
+
+    /**
+     * 商家最近若干小时（默认 24）的下单、支付统计
+     */
+    @PostMapping("/getSalesStats")
+    public ResponseEntity<List<SalesBucketDTO>> getSalesStats(@RequestBody Map<String, Integer> params) {
+        Integer id = params.get("ID");
+        if (id == null || id <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        Integer hours = params.get("hours");
+        return new ResponseEntity<>(salesStatsService.getHourlySales(id, hours == null ? 24 : hours), HttpStatus.OK);
+    }
 }
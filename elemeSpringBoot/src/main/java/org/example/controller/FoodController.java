@@ -2,9 +2,14 @@ package org.example.controller;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import jakarta.validation.Valid;
+import org.example.config.SessionAuthFilter;
+import org.example.dto.FoodStockDTO;
 import org.example.dto.IdsWrapper;
 import org.example.entity.Food;
+import org.example.service.IBusinessService;
 import org.example.service.IFoodService;
+import org.example.service.IInventoryService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,6 +29,10 @@ public class FoodController {
     //资源
     @Resource
     IFoodService foodService;
+    @Resource
+    IInventoryService inventoryService;
+    @Resource
+    IBusinessService businessService;
 
 
     @PostMapping("/getAllByIds")
@@ -51,4 +60,70 @@ public class FoodController {
         return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
+    @PostMapping("/getStock")
+    public ResponseEntity<FoodStockDTO> getStock(@RequestBody Map<String, Integer> requestBody) {
+        Integer ID = requestBody.get("ID");
+        if (ID == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(inventoryService.getStock(ID), HttpStatus.OK);
+    }
+
+    @PostMapping("/restock")
+    public ResponseEntity<Boolean> restock(@RequestBody Map<String, Integer> requestBody,
+            @RequestAttribute(name = SessionAuthFilter.CURRENT_PHONE, required = false) String phoneNumber) {
+        Integer ID = requestBody.get("ID");
+        Integer amount = requestBody.get("amount");
+        if (ID == null || amount == null || amount <= 0) {
+            return new ResponseEntity<>(false, HttpStatus.BAD_REQUEST);
+        }
+        if (phoneNumber == null) {
+            return new ResponseEntity<>(false, HttpStatus.UNAUTHORIZED);
+        }
+        //只有商品所属商家的店主可以补货
+        Food food = foodService.getById(ID);
+        if (food == null) {
+            return new ResponseEntity<>(false, HttpStatus.NOT_FOUND);
+        }
+        if (!businessService.isOwnedBy(food.getBusiness(), phoneNumber)) {
+            return new ResponseEntity<>(false, HttpStatus.FORBIDDEN);
+        }
+        return new ResponseEntity<>(inventoryService.restock(ID, amount), HttpStatus.OK);
+    }
+
+    @PostMapping("/save")
+    public ResponseEntity<Food> saveFood(@Valid @RequestBody Food food,
+            @RequestAttribute(name = SessionAuthFilter.CURRENT_PHONE, required = false) String phoneNumber) {
+        if (phoneNumber == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        //只能保存到自己的商家下；修改已有商品时原商家也必须是自己的
+        Food previous = foodService.getById(food.getId());
+        if (!businessService.isOwnedBy(food.getBusiness(), phoneNumber)
+                || (previous != null && !businessService.isOwnedBy(previous.getBusiness(), phoneNumber))) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        return new ResponseEntity<>(foodService.saveFood(food), HttpStatus.OK);
+    }
+
+    @PostMapping("/offShelf")
+    public ResponseEntity<Boolean> offShelf(@RequestBody Map<String, Integer> requestBody,
+            @RequestAttribute(name = SessionAuthFilter.CURRENT_PHONE, required = false) String phoneNumber) {
+        Integer ID = requestBody.get("ID");
+        if (ID == null) {
+            return new ResponseEntity<>(false, HttpStatus.BAD_REQUEST);
+        }
+        if (phoneNumber == null) {
+            return new ResponseEntity<>(false, HttpStatus.UNAUTHORIZED);
+        }
+        Food food = foodService.getById(ID);
+        if (food == null) {
+            return new ResponseEntity<>(false, HttpStatus.NOT_FOUND);
+        }
+        if (!businessService.isOwnedBy(food.getBusiness(), phoneNumber)) {
+            return new ResponseEntity<>(false, HttpStatus.FORBIDDEN);
+        }
+        Boolean result = foodService.offShelf(ID);
+        return new ResponseEntity<>(result, result ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+    }
 }
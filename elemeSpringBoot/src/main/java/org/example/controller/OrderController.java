@@ -2,17 +2,30 @@ package org.example.controller;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import org.example.config.SessionAuthFilter;
 import org.example.dto.OrderDetailDTO;
+import org.example.dto.OrderHistoryPage;
+import org.example.dto.OrderHistoryQuery;
 import org.example.dto.OrderRequestDTO;
 import org.example.entity.UserOrder;
+import org.example.service.IBusinessService;
+import org.example.service.IOrderExportService;
 import org.example.service.IUserOrderService;
+import org.example.service.impl.OrderStatusStreams;
 import org.example.service.impl.UserOrderService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @RestController
@@ -23,13 +36,23 @@ import java.time.LocalDateTime;
 //跨域
 @CrossOrigin(origins = "*" )
 public class OrderController {
+    // Idempotency-Key 最大长度
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
     //资源
     @Resource
     IUserOrderService userOrderService;
+    @Resource
+    OrderStatusStreams orderStatusStreams;
+    @Resource
+    IOrderExportService orderExportService;
+    @Resource
+    IBusinessService businessService;
+    // 同时进行的导出数量上限
+    private final Semaphore exportPermits = new Semaphore(2);
     @PostMapping("/getUserOrderById")
-    public ResponseEntity<UserOrder> getUserOrderById(@RequestBody Map<String, Integer> requestBody) {
+    public ResponseEntity<UserOrder> getUserOrderById(@RequestBody Map<String, Long> requestBody) {
         // 获取ID值
-        Integer id = requestBody.get("ID");
+        Long id = requestBody.get("ID");
         System.out.println(id);
         if (id == null) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
@@ -46,16 +69,85 @@ public class OrderController {
     }
 
     @PostMapping("/addUserOrder")
-    public ResponseEntity<Integer> addUserOrder(@RequestBody OrderRequestDTO requestBody){
-        return new ResponseEntity<>(userOrderService.addUserOrder(requestBody),HttpStatus.OK);
+    public ResponseEntity<Long> addUserOrder(@RequestBody OrderRequestDTO requestBody,
+                                             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey){
+        if (idempotencyKey != null && idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        Long orderId;
+        try {
+            // 客户端重试时带上同一个 Idempotency-Key，不会重复下单
+            orderId = idempotencyKey == null
+                    ? userOrderService.addUserOrder(requestBody)
+                    : userOrderService.addUserOrder(requestBody, idempotencyKey);
+        } catch (RejectedExecutionException e) {
+            // 写入队列已满或等待超时，提示客户端稍后重试
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (orderId != null && orderId == -1) {
+            // 库存不足
+            return new ResponseEntity<>(orderId, HttpStatus.CONFLICT);
+        }
+        if (orderId != null && orderId == -2) {
+            // 商品不存在或已下架
+            return new ResponseEntity<>(orderId, HttpStatus.BAD_REQUEST);
+        }
+        if (orderId != null && orderId == -3) {
+            // 提交的金额与服务端计算的不一致（价格已变动），需刷新后重新下单
+            return new ResponseEntity<>(orderId, HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        return new ResponseEntity<>(orderId,HttpStatus.OK);
     }
 
     @PostMapping("/havePayed")
-    public ResponseEntity<Boolean> havePayed(@RequestBody Map<String,Integer> requestBody){
-        Integer ID = requestBody.get("ID");
+    public ResponseEntity<Boolean> havePayed(@RequestBody Map<String,Long> requestBody){
+        Long ID = requestBody.get("ID");
         return new ResponseEntity<>(userOrderService.havePayed(ID),HttpStatus.OK);
     }
 
+    @PostMapping("/startDelivery")
+    public ResponseEntity<Boolean> startDelivery(@RequestBody Map<String,Long> requestBody,
+            @RequestAttribute(name = SessionAuthFilter.CURRENT_PHONE, required = false) String phoneNumber){
+        Long ID = requestBody.get("ID");
+        HttpStatus denied = checkMerchant(ID, phoneNumber);
+        if (denied != null) {
+            return new ResponseEntity<>(false, denied);
+        }
+        return new ResponseEntity<>(userOrderService.startDelivery(ID),HttpStatus.OK);
+    }
+
+    @PostMapping("/complete")
+    public ResponseEntity<Boolean> completeOrder(@RequestBody Map<String,Long> requestBody,
+            @RequestAttribute(name = SessionAuthFilter.CURRENT_PHONE, required = false) String phoneNumber){
+        Long ID = requestBody.get("ID");
+        HttpStatus denied = checkMerchant(ID, phoneNumber);
+        if (denied != null) {
+            return new ResponseEntity<>(false, denied);
+        }
+        return new ResponseEntity<>(userOrderService.completeOrder(ID),HttpStatus.OK);
+    }
+
+    @PostMapping("/cancel")
+    public ResponseEntity<Boolean> cancelOrder(@RequestBody Map<String,Long> requestBody,
+            @RequestAttribute(name = SessionAuthFilter.CURRENT_PHONE, required = false) String phoneNumber){
+        Long ID = requestBody.get("ID");
+        if (ID == null) {
+            return new ResponseEntity<>(false, HttpStatus.BAD_REQUEST);
+        }
+        if (phoneNumber == null) {
+            return new ResponseEntity<>(false, HttpStatus.UNAUTHORIZED);
+        }
+        //只有下单用户可以取消自己的订单
+        UserOrder order = userOrderService.getById(ID);
+        if (order == null) {
+            return new ResponseEntity<>(false, HttpStatus.NOT_FOUND);
+        }
+        if (!phoneNumber.equals(order.getUserPhone())) {
+            return new ResponseEntity<>(false, HttpStatus.FORBIDDEN);
+        }
+        return new ResponseEntity<>(userOrderService.cancelOrder(ID),HttpStatus.OK);
+    }
+
     @PostMapping("/getAllUserOrder")
     public ResponseEntity<List<UserOrder>> getAllUserOrder(@RequestBody Map<String,String> requestBody){
         String userPhone = requestBody.get("userPhone");
@@ -63,9 +155,22 @@ public class OrderController {
         return new ResponseEntity<>(userOrders,HttpStatus.OK);
     }
 
+    @PostMapping("/history")
+    public ResponseEntity<OrderHistoryPage> getOrderHistory(@RequestBody OrderHistoryQuery query){
+        if (query.getUserPhone() == null || query.getUserPhone().isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        OrderHistoryPage page = userOrderService.getOrderHistory(query);
+        if (page == null) {
+            //游标格式错误
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(page,HttpStatus.OK);
+    }
+
     @PostMapping("/getOrderDetail")
-    public ResponseEntity<OrderDetailDTO> getOrderDetail(@RequestBody Map<String, Integer> requestBody) {
-        Integer ID = requestBody.get("ID");
+    public ResponseEntity<OrderDetailDTO> getOrderDetail(@RequestBody Map<String, Long> requestBody) {
+        Long ID = requestBody.get("ID");
         if (ID == null) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
@@ -78,12 +183,102 @@ public class OrderController {
     }
 
 
+    /**
+     * 订阅订单状态变更（SSE），替代轮询 getOrderDetail
+     */
+    @GetMapping(value = "/stream/{id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrder(@PathVariable Long id) {
+        OrderDetailDTO current = userOrderService.getOrderDetail(id);
+        if (current == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        SseEmitter emitter = orderStatusStreams.subscribeOrder(id, current);
+        if (emitter == null) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return new ResponseEntity<>(emitter, HttpStatus.OK);
+    }
+
+    /**
+     * 订阅当前登录用户所有订单的状态变更（SSE）
+     * 只能订阅自己的订单，路径中的手机号与登录用户不一致时拒绝
+     */
+    @GetMapping(value = {"/stream/user", "/stream/user/{userPhone}"}, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamUserOrders(@PathVariable(required = false) String userPhone,
+            @RequestAttribute(name = SessionAuthFilter.CURRENT_PHONE, required = false) String phoneNumber) {
+        if (phoneNumber == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        if (userPhone != null && !userPhone.equals(phoneNumber)) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        SseEmitter emitter = orderStatusStreams.subscribeUser(phoneNumber);
+        if (emitter == null) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return new ResponseEntity<>(emitter, HttpStatus.OK);
+    }
+
+    /**
+     * 按下单日期范围导出订单（含归档），边查边写，gzip 压缩
+     * 参数：from、to 为 yyyy-MM-dd（含首尾），format 为 csv 或 ndjson
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam LocalDate from,
+                                                              @RequestParam LocalDate to,
+                                                              @RequestParam(defaultValue = "csv") String format,
+            @RequestAttribute(name = SessionAuthFilter.CURRENT_PHONE, required = false) String phoneNumber) {
+        //先鉴权再占用导出名额，未授权的请求不能耗尽名额
+        if (phoneNumber == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        if (!orderExportService.canExport(phoneNumber)) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        if (from.isAfter(to) || !("csv".equals(format) || "ndjson".equals(format))) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (!exportPermits.tryAcquire()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                orderExportService.export(from, to, format, out);
+            } finally {
+                exportPermits.release();
+            }
+        };
+        String filename = "orders-" + from + "-" + to + "." + format + ".gz";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .body(body);
+    }
+
     @GetMapping("/getOrderTime/{id}")
-    public ResponseEntity<LocalDateTime> getOrderTime(@PathVariable Integer id) {
+    public ResponseEntity<LocalDateTime> getOrderTime(@PathVariable Long id) {
         UserOrder order = userOrderService.getById(id);
         if (order != null) {
             return new ResponseEntity<>(order.getCreatedAt(), HttpStatus.OK);
         }
         return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
+
+    // 配送、完成只能由订单所属商家的店主操作，校验通过返回 null，否则返回拒绝的状态码
+    private HttpStatus checkMerchant(Long orderId, String phoneNumber) {
+        if (orderId == null) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (phoneNumber == null) {
+            return HttpStatus.UNAUTHORIZED;
+        }
+        UserOrder order = userOrderService.getById(orderId);
+        if (order == null) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (!businessService.isOwnedBy(order.getBusinessID(), phoneNumber)) {
+            return HttpStatus.FORBIDDEN;
+        }
+        return null;
+    }
 }
@@ -5,17 +5,24 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.config.SessionAuthFilter;
+import org.example.dto.UserProfile;
 import org.example.entity.User;
 import org.example.mapper.IUserMapper;
+import org.example.service.ISessionService;
 import org.example.service.IUserService;
+import org.example.service.impl.AuthRateLimiter;
+import org.example.util.SignedTokenCodec;
+import org.springframework.beans.factory.annotation.Value;
 import org.example.service.EmailService;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 
 import java.util.Map;
-import java.util.UUID;
 import java.util.HashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 
 @RestController
@@ -33,6 +40,19 @@ public class UserController {
     private IUserService userService;
     @Resource
     private EmailService emailService;
+    @Resource
+    private ISessionService sessionService;
+    @Resource
+    private SignedTokenCodec signedTokenCodec;
+    @Resource
+    private AuthRateLimiter authRateLimiter;
+
+    //令牌模式：signed 无状态签名令牌 / session 本机内存会话
+    @Value("${user.token.mode:signed}")
+    private String tokenMode;
+    //签名令牌有效期（秒）
+    @Value("${user.token.ttl-seconds:7200}")
+    private long tokenTtlSeconds;
 
 
 
@@ -49,11 +69,23 @@ public class UserController {
                 return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
             }
             
+            // 同一手机号的登录频率限制
+            if (!authRateLimiter.allowPhone(phoneNumber)) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("code", 429);
+                errorResponse.put("message", "请求过于频繁，请稍后再试");
+                return new ResponseEntity<>(errorResponse, HttpStatus.TOO_MANY_REQUESTS);
+            }
+            
             User user = userService.login(phoneNumber, password);
             System.out.println("Login service returned user: " + user);
             
             if (user != null) {
-                String token = UUID.randomUUID().toString();
+                // 后续请求由 SessionAuthFilter 校验令牌
+                String token = "session".equals(tokenMode)
+                        ? sessionService.create(UserProfile.of(user))
+                        : signedTokenCodec.issue(user.getPhoneNumber(),
+                                System.currentTimeMillis() / 1000 + tokenTtlSeconds);
                 
                 // 创建用户信息对象
                 Map<String, Object> userInfo = new HashMap<>();
@@ -78,6 +110,12 @@ public class UserController {
                 errorResponse.put("message", "用户名或密码错误");
                 return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
             }
+        } catch (RejectedExecutionException e) {
+            // 密码哈希线程池繁忙，快速失败
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("code", 503);
+            errorResponse.put("message", "服务繁忙，请稍后重试");
+            return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
             System.err.println("Login error: " + e.getMessage());
             e.printStackTrace();
@@ -88,12 +126,38 @@ public class UserController {
         }
     }
 
+    @GetMapping("/me")
+    @Operation(summary = "获取当前登录用户")
+    public ResponseEntity<UserProfile> me(
+            @RequestAttribute(name = SessionAuthFilter.CURRENT_USER, required = false) UserProfile profile,
+            @RequestAttribute(name = SessionAuthFilter.CURRENT_PHONE, required = false) String phoneNumber) {
+        if (profile == null && phoneNumber != null) {
+            // 签名令牌只携带手机号，资料按需读取
+            profile = userService.getProfile(phoneNumber);
+        }
+        if (profile == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        return ResponseEntity.ok(profile);
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "退出登录")
+    public ResponseEntity<Void> logout(HttpServletRequest request) {
+        // 签名令牌无服务端状态，到期自动失效，客户端丢弃即可
+        sessionService.invalidate(SessionAuthFilter.resolveToken(request));
+        return ResponseEntity.ok().build();
+    }
+
     @PostMapping("/sendVerifyCode")
     public ResponseEntity<String> sendVerifyCode(@RequestBody Map<String, String> requestBody) {
         String email = requestBody.get("email");
         if (email == null || email.isEmpty()) {
             return new ResponseEntity<>("邮箱不能为空", HttpStatus.BAD_REQUEST);
         }
+        if (!authRateLimiter.allowEmail(email)) {
+            return new ResponseEntity<>("请求过于频繁，请稍后再试", HttpStatus.TOO_MANY_REQUESTS);
+        }
         
         try {
             emailService.sendVerificationCode(email);
@@ -112,13 +176,23 @@ public class UserController {
         String email = registerData.get("email");
         String verifyCode = registerData.get("verifyCode");
         
+        // 同一手机号的注册频率限制
+        if (!authRateLimiter.allowPhone(phoneNumber)) {
+            return new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
+        }
+        
         // 验证邮箱验证码
         if (!emailService.verifyCode(email, verifyCode)) {
             return new ResponseEntity<>(-1, HttpStatus.OK); // -1 表示验证码错误
         }
         
-        Integer haveRegistered = userService.register(phoneNumber, password, confirmPassword, name, email);
-        return new ResponseEntity<>(haveRegistered, HttpStatus.OK);
+        try {
+            Integer haveRegistered = userService.register(phoneNumber, password, confirmPassword, name, email);
+            return new ResponseEntity<>(haveRegistered, HttpStatus.OK);
+        } catch (RejectedExecutionException e) {
+            // 密码哈希线程池繁忙，快速失败
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
     }
 
 
@@ -0,0 +1,14 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FoodStockDTO {
+    private Integer foodId;
+    //剩余可售库存，null 表示不限量
+    private Long stock;
+    //累计销量（含尚未同步到数据库的部分）
+    private Long sold;
+}
@@ -0,0 +1,22 @@
+package org.example.dto;
+
+import lombok.Data;
+import org.example.entity.Business;
+import org.example.entity.Food;
+
+import java.util.List;
+
+@Data
+public class MenuDeltaDTO {
+    private Integer businessId;
+    //当前菜单版本，客户端下次请求时带上
+    private Long version;
+    //是否为全量快照（客户端版本过旧或未知时）
+    private Boolean full;
+    //全量快照时返回商家及完整菜单
+    private Business business;
+    //新增或变更的上架商品
+    private List<Food> changed;
+    //下架或删除的商品ID
+    private List<Integer> removed;
+}
@@ -7,13 +7,17 @@ import java.time.LocalDateTime;
 
 @Data
 public class OrderDetailDTO {
-    private Integer id;
+    private Long id;
     private Integer businessID;
+    //商家名称（来自读模型）
+    private String businessName;
     private String userPhone;
     private String orderList;
     private Double price;
     private Integer state;
     private LocalDateTime createdAt;
+    //订单明细（含商品名称、图片和下单时单价）
+    private List<OrderLineDTO> lines;
 }
 
 
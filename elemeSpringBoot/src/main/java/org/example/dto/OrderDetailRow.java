@@ -0,0 +1,26 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订单详情联表查询的一行：订单头 + 一个明细行（无明细时明细字段为 null）
+ */
+@Data
+@AllArgsConstructor
+public class OrderDetailRow {
+    private Long id;
+    private Integer businessID;
+    private String userPhone;
+    private String orderList;
+    private Double price;
+    private Integer state;
+    private LocalDateTime createdAt;
+    private Integer foodId;
+    private String foodName;
+    private String img;
+    private Integer quantity;
+    private Double unitPrice;
+}
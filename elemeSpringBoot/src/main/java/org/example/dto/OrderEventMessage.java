@@ -0,0 +1,24 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 投递给下游的订单事件
+ * 投递至少一次，下游可按 id 去重
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEventMessage {
+    //发件箱记录ID
+    private Long id;
+    private Long orderId;
+    private String eventType;
+    //事件内容（JSON）
+    private String payload;
+    private LocalDateTime createdAt;
+}
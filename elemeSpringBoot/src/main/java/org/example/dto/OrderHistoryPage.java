@@ -0,0 +1,17 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHistoryPage {
+    //按下单时间倒序的订单摘要
+    private List<OrderSummaryDTO> orders;
+    //下一页游标，为空表示没有更多数据
+    private String nextCursor;
+}
@@ -0,0 +1,19 @@
+package org.example.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class OrderHistoryQuery {
+    private String userPhone;
+    //订单状态，为空表示不限
+    private Integer state;
+    //下单日期范围（含首尾），为空表示不限
+    private LocalDate from;
+    private LocalDate to;
+    //上一页返回的 nextCursor，首页为空
+    private String cursor;
+    //每页条数，默认 20，最多 100
+    private Integer size;
+}
@@ -0,0 +1,19 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLineDTO {
+    private Integer foodId;
+    private String foodName;
+    private String img;
+    private Integer quantity;
+    //下单时的单价
+    private Double unitPrice;
+    //小计
+    private Double lineTotal;
+}
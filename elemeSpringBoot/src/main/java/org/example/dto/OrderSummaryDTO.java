@@ -0,0 +1,21 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订单列表摘要，只包含列表页需要的列（不含 orderList 明细）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+    private Long id;
+    private Integer businessID;
+    private Double price;
+    private Integer state;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,22 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * 服务端计算出的订单价格，金额以分为单位
+ */
+@Getter
+@AllArgsConstructor
+public class PriceQuote {
+    //商品ID -> 数量，按首次出现的顺序
+    private final Map<Integer, Integer> quantities;
+    //参与计价的商品快照
+    private final Map<Integer, PricedFood> foods;
+    //商品小计
+    private final long itemsCents;
+    //应付总额（商品小计 + 打包费 + 配送费）
+    private final long totalCents;
+}
@@ -0,0 +1,16 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 下单计价用的商品快照，价格以分为单位
+ */
+@Getter
+@AllArgsConstructor
+public class PricedFood {
+    private final Integer id;
+    private final Integer business;
+    private final long priceCents;
+    private final boolean selling;
+}
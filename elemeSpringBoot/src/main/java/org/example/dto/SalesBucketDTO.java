@@ -0,0 +1,21 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesBucketDTO {
+    //小时起点
+    private LocalDateTime hourStart;
+    private Long ordersPlaced;
+    //下单金额（元）
+    private Double revenuePlaced;
+    private Long ordersPaid;
+    //支付金额（元）
+    private Double revenuePaid;
+}
@@ -0,0 +1,24 @@
+package org.example.dto;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * 一次下单的库存预占
+ * quantities 为 商品ID -> 数量，创建后不可修改
+ */
+@Getter
+public class StockReservation {
+    private final Map<Integer, Integer> quantities;
+    private final long deadlineMillis;
+
+    public StockReservation(Map<Integer, Integer> quantities, long deadlineMillis) {
+        this.quantities = Map.copyOf(quantities);
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= deadlineMillis;
+    }
+}
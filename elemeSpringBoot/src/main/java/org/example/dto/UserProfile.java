@@ -0,0 +1,21 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.entity.User;
+
+/**
+ * 登录用户的不可变资料快照（不含密码），保存在会话中供已登录请求直接使用
+ */
+@Getter
+@AllArgsConstructor
+public class UserProfile {
+    private final String phoneNumber;
+    private final String name;
+    private final String email;
+    private final String gender;
+
+    public static UserProfile of(User user) {
+        return new UserProfile(user.getPhoneNumber(), user.getName(), user.getEmail(), user.getGender());
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Transient;
@@ -41,6 +42,9 @@ public class Business {
     private String delivery;
     //商家类型
     private String type;
+    //店主手机号，只有店主可以修改商品和库存，不返回给客户端
+    @JsonIgnore
+    private String ownerPhone;
     //折扣、满减 列表，不添加到数据库
     @Transient
     private List<String> discountsList;
@@ -49,6 +53,9 @@ public class Business {
     private List<String> sidebarItemsList;
     @Transient
     private List<Food> foodList;
+    //菜单版本，用于客户端增量同步，不添加到数据库
+    @Transient
+    private Long menuVersion;
 
     public void setDiscounts(String discounts) {
         this.discounts = discounts;
@@ -0,0 +1,38 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 商家每小时销售汇总
+ * 由 SalesAggregationService 随发件箱事件的确认累加写入，看板只查询该表
+ */
+@Data
+@Entity
+@Table(name = "business_sales_hourly")
+@IdClass(BusinessSalesHourly.Key.class)
+public class BusinessSalesHourly {
+    @Id
+    @Column(name = "business_id")
+    private Integer businessId;
+    //小时起点
+    @Id
+    @Column(name = "hour_start")
+    private LocalDateTime hourStart;
+    //下单数、下单金额（分）
+    private Long ordersPlaced;
+    private Long revenuePlacedCents;
+    //支付数、支付金额（分）
+    private Long ordersPaid;
+    private Long revenuePaidCents;
+    private LocalDateTime updatedAt;
+
+    @Data
+    public static class Key implements Serializable {
+        private Integer businessId;
+        private LocalDateTime hourStart;
+    }
+}
@@ -2,17 +2,21 @@ package org.example.entity;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
 import jakarta.validation.constraints.*;
 import lombok.Data;
+import org.example.util.InternedListCache;
 import org.hibernate.validator.constraints.Length;
 
-import java.util.Arrays;
 import java.util.List;
-import java.util.ArrayList;
 
 @Data
 @Entity
+// 菜单查询按 (商家, 上架状态) 过滤，建立联合索引
+@Table(name = "food", indexes = @Index(name = "idx_food_business_selling", columnList = "business, selling"))
 public class Food {
     @Id
     @NotNull(message = "商品ID不能为空")
@@ -65,10 +69,12 @@ public class Food {
 
     public void setDiscount(String discounts) {
         this.discount = discounts;
-        if (discounts != null && !discounts.trim().isEmpty()) {
-            this.discountList = Arrays.asList(discounts.split("-"));
-        } else {
-            this.discountList = new ArrayList<>();
-        }
+        this.discountList = InternedListCache.split(discounts, '-');
+    }
+
+    // 实体按字段加载不会经过 setter，加载完成后解析一次折扣列表
+    @PostLoad
+    void parseDiscountList() {
+        this.discountList = InternedListCache.split(this.discount, '-');
     }
 }
@@ -0,0 +1,28 @@
+package org.example.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 商品库存
+ * 没有库存记录的商品视为不限量
+ */
+@Data
+@Entity
+@Table(name = "food_stock")
+public class FoodStock {
+    @Id
+    @Column(name = "food_id")
+    private Integer foodId;
+    //剩余库存（已扣除已确认的销量）
+    private Long stock;
+    //累计销量
+    private Long sold;
+    //最后一次同步时间
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,24 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 下单幂等键
+ * 与订单在同一事务中写入，客户端重试时按键直接返回原订单ID
+ */
+@Data
+@Entity
+@Table(name = "idempotency_key", indexes = @Index(name = "idx_idempotency_key_created", columnList = "created_at"))
+public class IdempotencyKey {
+    //用户手机号 + ":" + 客户端提供的 Idempotency-Key 的 SHA-256 十六进制串
+    @Id
+    @Column(name = "idem_key", length = 64)
+    private String idemKey;
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,25 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * 菜单变更记录
+ * 每次商品新增、修改、下架记一条，增量同步按 (business_id, version) 取客户端版本之后的变更
+ */
+@Data
+@Entity
+@Table(name = "menu_change", indexes = {
+        @Index(name = "idx_menu_change_business_version", columnList = "business_id, version")})
+public class MenuChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "business_id", nullable = false)
+    private Integer businessId;
+    //变更后的菜单版本
+    @Column(nullable = false)
+    private Long version;
+    @Column(name = "food_id", nullable = false)
+    private Integer foodId;
+}
@@ -0,0 +1,22 @@
+package org.example.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * 商家菜单版本
+ * 每次菜单变更原子加一，所有实例共用，客户端拿到的版本号在任何实例上都可比较
+ */
+@Data
+@Entity
+@Table(name = "menu_version")
+public class MenuVersion {
+    @Id
+    @Column(name = "business_id")
+    private Integer businessId;
+    @Column(nullable = false)
+    private Long version;
+}
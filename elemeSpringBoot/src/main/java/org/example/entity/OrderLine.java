@@ -0,0 +1,30 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * 订单明细行
+ * 每个订单中每种商品一行，单价为下单时的快照
+ */
+@Data
+@Entity
+@Table(name = "order_line",
+        indexes = @Index(name = "uk_order_line_order_food", columnList = "order_id, food_id", unique = true))
+public class OrderLine {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    //订单ID
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+    //商品ID
+    @Column(name = "food_id", nullable = false)
+    private Integer foodId;
+    //数量
+    @Column(nullable = false)
+    private Integer quantity;
+    //下单时的单价
+    @Column(name = "unit_price", nullable = false)
+    private Double unitPrice;
+}
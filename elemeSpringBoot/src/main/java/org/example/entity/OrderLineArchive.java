@@ -0,0 +1,23 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * 归档订单的明细行，随订单一起迁移
+ */
+@Data
+@Entity
+@Table(name = "order_line_archive", indexes = @Index(name = "idx_order_line_archive_order", columnList = "order_id"))
+public class OrderLineArchive {
+    @Id
+    private Long id;
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+    @Column(name = "food_id", nullable = false)
+    private Integer foodId;
+    @Column(nullable = false)
+    private Integer quantity;
+    @Column(name = "unit_price", nullable = false)
+    private Double unitPrice;
+}
@@ -0,0 +1,29 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订单事件发件箱
+ * 与订单写入、状态流转在同一事务中插入，由 OrderOutboxRelay 批量投递后删除
+ */
+@Data
+@Entity
+@Table(name = "order_outbox")
+public class OrderOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+    //事件类型，如 order.created、order.paid
+    @Column(name = "event_type", nullable = false, length = 32)
+    private String eventType;
+    //事件内容（JSON）
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
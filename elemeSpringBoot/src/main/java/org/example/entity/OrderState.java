@@ -0,0 +1,41 @@
+package org.example.entity;
+
+/**
+ * 订单状态
+ * 未支付 -> 已支付 -> 配送中 -> 已完成，只有未支付的订单可以取消
+ * code 为 user_order.state 中保存的值
+ */
+public enum OrderState {
+    UNPAID(0, "未支付"),
+    PAID(1, "已支付"),
+    CANCELLED(2, "已取消"),
+    DELIVERING(3, "配送中"),
+    DONE(4, "已完成");
+
+    private final int code;
+    private final String description;
+
+    OrderState(int code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public static OrderState fromCode(Integer code) {
+        if (code != null) {
+            for (OrderState state : values()) {
+                if (state.code == code) {
+                    return state;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.example.dto.OrderLineDTO;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 订单读模型
+ * 由订单变更事件异步维护的反范式视图，包含商家名称和明细（商品名、小计），读取时无需联表
+ */
+@Data
+@Entity
+@Table(name = "order_view", indexes = @Index(name = "idx_order_view_phone_created",
+        columnList = "user_phone, created_at desc"))
+public class OrderView {
+    @Id
+    private Long id;
+    private String userPhone;
+    private Integer businessID;
+    //商家名称
+    private String businessName;
+    private String orderList;
+    private Double price;
+    private Integer state;
+    private LocalDateTime createdAt;
+    //订单明细，以 JSON 保存
+    @JdbcTypeCode(SqlTypes.JSON)
+    private List<OrderLineDTO> lines;
+}
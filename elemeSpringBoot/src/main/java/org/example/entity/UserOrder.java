@@ -1,26 +1,57 @@
 package org.example.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Data
-public class UserOrder {
+// 历史订单按用户分页查询：user_phone 等值 + created_at 倒序 + id 作为同一时刻的排序依据
+// 归档任务按 created_at 找出超过保留期的订单
+@Table(name = "user_order", indexes = {
+        @Index(name = "idx_user_order_phone_created", columnList = "user_phone, created_at desc, id"),
+        @Index(name = "idx_user_order_created", columnList = "created_at")})
+public class UserOrder implements Persistable<Long> {
+    // 订单ID由 SnowflakeIdGenerator 在保存前分配，插入无需回读自增主键，可批量写入
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Integer ID;
+    private Long ID;
     private Integer businessID;
     private String userPhone;
     private String orderList;
     private Double price;
+    //订单状态，取值见 OrderState
     private Integer state;
     private LocalDateTime createdAt;
 
+    // ID 预先分配后 Spring Data 无法根据 ID 判断是否为新实体，用该标记避免保存前多查一次
+    @Transient
+    @JsonIgnore
+    private boolean newOrder = true;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         state = 0;
     }
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        newOrder = false;
+    }
+
+    // 同时作为 Persistable 的主键访问方法和 JSON 中的 id 字段
+    @Override
+    public Long getId() {
+        return ID;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newOrder;
+    }
 }
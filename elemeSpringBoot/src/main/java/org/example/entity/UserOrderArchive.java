@@ -0,0 +1,29 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 归档订单（冷数据）
+ * 结构与 user_order 相同，由 OrderArchiver 把超过保留期的订单分批迁移过来
+ */
+@Data
+@Entity
+// 导出按 created_at 范围读取
+@Table(name = "user_order_archive", indexes = {
+        @Index(name = "idx_user_order_archive_phone_created", columnList = "user_phone, created_at desc, id"),
+        @Index(name = "idx_user_order_archive_created", columnList = "created_at")})
+public class UserOrderArchive {
+    @Id
+    private Long ID;
+    private Integer businessID;
+    private String userPhone;
+    private String orderList;
+    private Double price;
+    private Integer state;
+    private LocalDateTime createdAt;
+    //归档时间
+    private LocalDateTime archivedAt;
+}
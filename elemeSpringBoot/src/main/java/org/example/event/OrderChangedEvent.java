@@ -0,0 +1,49 @@
+package org.example.event;
+
+import lombok.Getter;
+import org.example.entity.OrderLine;
+import org.example.entity.UserOrder;
+
+import java.util.List;
+
+/**
+ * 订单变更事件（进程内）
+ * 下单提交后发布 CREATED，状态流转成功后发布 STATE_CHANGED
+ */
+@Getter
+public class OrderChangedEvent {
+
+    public enum Type {
+        CREATED,
+        STATE_CHANGED
+    }
+
+    private final Type type;
+    private final Long orderId;
+    //变更后的状态
+    private final Integer state;
+    //下单用户手机号，仅 CREATED 事件携带；按用户推送状态变更使用发件箱事件中的手机号
+    private final String userPhone;
+    //仅 CREATED 事件携带，读模型据此构建视图而不必回查订单表
+    private final UserOrder order;
+    private final List<OrderLine> lines;
+
+    private OrderChangedEvent(Type type, Long orderId, Integer state, String userPhone,
+                              UserOrder order, List<OrderLine> lines) {
+        this.type = type;
+        this.orderId = orderId;
+        this.state = state;
+        this.userPhone = userPhone;
+        this.order = order;
+        this.lines = lines;
+    }
+
+    public static OrderChangedEvent created(UserOrder order, List<OrderLine> lines) {
+        return new OrderChangedEvent(Type.CREATED, order.getId(), order.getState(), order.getUserPhone(),
+                order, List.copyOf(lines));
+    }
+
+    public static OrderChangedEvent stateChanged(Long orderId, Integer state) {
+        return new OrderChangedEvent(Type.STATE_CHANGED, orderId, state, null, null, List.of());
+    }
+}
@@ -8,5 +8,7 @@ import java.util.List;
 @Repository
 public interface IFoodMapper extends CrudRepository<Food, Integer> {
     List<Food> findAllByBusiness(Integer businessId);
+    // 按商家和上架状态查询，走 idx_food_business_selling 索引
+    List<Food> findAllByBusinessAndSelling(Integer businessId, Integer selling);
     Food findFoodById(Integer id);
 }
@@ -0,0 +1,24 @@
+package org.example.mapper;
+
+import org.example.entity.FoodStock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IFoodStockMapper extends CrudRepository<FoodStock, Integer> {
+    // 把内存中累计的库存、销量增量一次性写回
+    @Transactional
+    @Modifying
+    @Query("update FoodStock s set s.stock = s.stock + :stockDelta, s.sold = s.sold + :soldDelta, " +
+            "s.updatedAt = :now where s.foodId = :foodId")
+    int applyDelta(@Param("foodId") Integer foodId,
+                   @Param("stockDelta") long stockDelta,
+                   @Param("soldDelta") long soldDelta,
+                   @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,20 @@
+package org.example.mapper;
+
+import org.example.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IIdempotencyKeyMapper extends CrudRepository<IdempotencyKey, String> {
+    // 清理过期的幂等键
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.createdAt < :before")
+    int deleteExpired(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,26 @@
+package org.example.mapper;
+
+import org.example.entity.OrderView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface IOrderViewMapper extends CrudRepository<OrderView, Long> {
+    List<OrderView> findAllByUserPhoneOrderByCreatedAtDesc(String userPhone);
+
+    @Transactional
+    @Modifying
+    @Query("update OrderView v set v.state = :state where v.id = :id")
+    int updateState(@Param("id") Long id, @Param("state") Integer state);
+
+    // 还没有读模型的订单（读模型上线前的历史订单或投影失败的订单）
+    @Query("select o.ID from UserOrder o where not exists (select 1 from OrderView v where v.id = o.ID) order by o.ID")
+    List<Long> findUnprojectedOrderIds(Pageable pageable);
+}
@@ -1,12 +1,15 @@
 package org.example.mapper;
 
 import org.example.entity.User;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface IUserMapper extends CrudRepository<User, String> {
-    User findByPhoneNumberAndPassword(String phoneNumber, String password);
     boolean existsByPhoneNumber(String phoneNumber);
     User findByPhoneNumber(String phoneNumber);
     
@@ -14,4 +17,43 @@ public interface IUserMapper extends CrudRepository<User, String> {
     default void update(User user) {
         save(user);
     }
+
+    // 登录失败次数原子加一，达到上限时同一条语句内锁定账户
+    @Transactional
+    @Modifying
+    @Query("update User u set u.loginAttempts = coalesce(u.loginAttempts, 0) + 1, " +
+            "u.accountLocked = case when coalesce(u.loginAttempts, 0) + 1 >= :maxAttempts then true " +
+            "else u.accountLocked end where u.phoneNumber = :phoneNumber")
+    int incrementLoginAttempts(@Param("phoneNumber") String phoneNumber, @Param("maxAttempts") int maxAttempts);
+
+    // 重置登录失败次数并解锁，没有变化时不写
+    @Transactional
+    @Modifying
+    @Query("update User u set u.loginAttempts = 0, u.accountLocked = false " +
+            "where u.phoneNumber = :phoneNumber and (u.loginAttempts <> 0 or u.accountLocked = true)")
+    int resetLoginAttempts(@Param("phoneNumber") String phoneNumber);
+
+    // 写入内存中累计的登录失败次数，locked 为 true 时同时锁定；没有变化时不写
+    @Transactional
+    @Modifying
+    @Query("update User u set u.loginAttempts = :attempts, " +
+            "u.accountLocked = case when :locked = true then true else u.accountLocked end " +
+            "where u.phoneNumber = :phoneNumber and (u.loginAttempts is null or u.loginAttempts <> :attempts " +
+            "or (:locked = true and (u.accountLocked is null or u.accountLocked = false)))")
+    int saveLoginAttempts(@Param("phoneNumber") String phoneNumber, @Param("attempts") int attempts,
+                          @Param("locked") boolean locked);
+
+    // 写入密码哈希；实体上的 @Length/@Pattern 约束针对明文，哈希值不经过实体校验
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.phoneNumber = :phoneNumber")
+    int updatePassword(@Param("phoneNumber") String phoneNumber, @Param("password") String password);
+
+    // 注册新用户，密码已是哈希值，原因同上
+    @Transactional
+    @Modifying
+    @Query(value = "insert into user (phone_number, password, name, email, gender, login_attempts, account_locked) " +
+            "values (:phoneNumber, :password, :name, :email, :gender, 0, false)", nativeQuery = true)
+    int insertUser(@Param("phoneNumber") String phoneNumber, @Param("password") String password,
+                   @Param("name") String name, @Param("email") String email, @Param("gender") String gender);
 }
@@ -0,0 +1,41 @@
+package org.example.mapper;
+
+import org.example.dto.OrderDetailRow;
+import org.example.dto.OrderSummaryDTO;
+import org.example.entity.UserOrderArchive;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface IUserOrderArchiveMapper extends CrudRepository<UserOrderArchive, Long> {
+
+    // 归档订单的详情，与 IUserOrderMapper.findDetailRows 相同
+    @Query("select new org.example.dto.OrderDetailRow(o.ID, o.businessID, o.userPhone, o.orderList, o.price, " +
+            "o.state, o.createdAt, l.foodId, f.name, f.img, l.quantity, l.unitPrice) " +
+            "from UserOrderArchive o left join OrderLineArchive l on l.orderId = o.ID left join Food f on f.id = l.foodId " +
+            "where o.ID = :orderId order by l.id")
+    List<OrderDetailRow> findDetailRows(@Param("orderId") Long orderId);
+
+    // 归档订单的键集分页，与 IUserOrderMapper.findHistory 相同
+    @Query("select new org.example.dto.OrderSummaryDTO(o.ID, o.businessID, o.price, o.state, o.createdAt) " +
+            "from UserOrderArchive o where o.userPhone = :userPhone " +
+            "and (:state is null or o.state = :state) " +
+            "and (:startTime is null or o.createdAt >= :startTime) " +
+            "and (:endTime is null or o.createdAt < :endTime) " +
+            "and (:cursorTime is null or o.createdAt < :cursorTime " +
+            "or (o.createdAt = :cursorTime and o.ID < :cursorId)) " +
+            "order by o.createdAt desc, o.ID desc")
+    List<OrderSummaryDTO> findHistory(@Param("userPhone") String userPhone,
+                                      @Param("state") Integer state,
+                                      @Param("startTime") LocalDateTime startTime,
+                                      @Param("endTime") LocalDateTime endTime,
+                                      @Param("cursorTime") LocalDateTime cursorTime,
+                                      @Param("cursorId") Long cursorId,
+                                      Pageable pageable);
+}
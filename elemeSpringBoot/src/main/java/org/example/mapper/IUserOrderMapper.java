@@ -1,14 +1,52 @@
 package org.example.mapper;
 
+import org.example.dto.OrderDetailRow;
+import org.example.dto.OrderSummaryDTO;
 import org.example.entity.UserOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface IUserOrderMapper extends CrudRepository<UserOrder,Integer> {
-    UserOrder findOrderByID(Integer ID);
+public interface IUserOrderMapper extends CrudRepository<UserOrder,Long> {
+    UserOrder findOrderByID(Long ID);
     List<UserOrder> findAllByUserPhone(String userPhone);
 
+    // 订单详情：订单头、明细行和商品名称一次联表查出
+    @Query("select new org.example.dto.OrderDetailRow(o.ID, o.businessID, o.userPhone, o.orderList, o.price, " +
+            "o.state, o.createdAt, l.foodId, f.name, f.img, l.quantity, l.unitPrice) " +
+            "from UserOrder o left join OrderLine l on l.orderId = o.ID left join Food f on f.id = l.foodId " +
+            "where o.ID = :orderId order by l.id")
+    List<OrderDetailRow> findDetailRows(@Param("orderId") Long orderId);
+
+    // 历史订单键集分页：从游标 (cursorTime, cursorId) 之后继续按时间倒序读取，走 idx_user_order_phone_created
+    @Query("select new org.example.dto.OrderSummaryDTO(o.ID, o.businessID, o.price, o.state, o.createdAt) " +
+            "from UserOrder o where o.userPhone = :userPhone " +
+            "and (:state is null or o.state = :state) " +
+            "and (:startTime is null or o.createdAt >= :startTime) " +
+            "and (:endTime is null or o.createdAt < :endTime) " +
+            "and (:cursorTime is null or o.createdAt < :cursorTime " +
+            "or (o.createdAt = :cursorTime and o.ID < :cursorId)) " +
+            "order by o.createdAt desc, o.ID desc")
+    List<OrderSummaryDTO> findHistory(@Param("userPhone") String userPhone,
+                                      @Param("state") Integer state,
+                                      @Param("startTime") LocalDateTime startTime,
+                                      @Param("endTime") LocalDateTime endTime,
+                                      @Param("cursorTime") LocalDateTime cursorTime,
+                                      @Param("cursorId") Long cursorId,
+                                      Pageable pageable);
+
+    // 带条件的状态流转：只有当前状态为 from 时才更新为 to，返回受影响行数（0 表示未生效）
+    @Transactional
+    @Modifying
+    @Query("update UserOrder o set o.state = :to where o.ID = :id and o.state = :from")
+    int transition(@Param("id") Long id, @Param("from") Integer from, @Param("to") Integer to);
+
 }
@@ -34,4 +34,7 @@ public interface IBusinessService {
     
     // 根据起送价获取商家
     List<Business> getBusinessByMinPrice(Double maxMinPrice);
+
+    // 商家是否属于该手机号的用户
+    boolean isOwnedBy(Integer businessId, String phoneNumber);
 }
@@ -8,4 +8,8 @@ public interface IFoodService {
     List<Food> getFoodsByIds(Integer[] Ids);
     Food getById(Integer id);
     List<Food> getFoodsByBusinessId(Integer businessId);
+    // 新增或修改商品，并记录菜单变更
+    Food saveFood(Food food);
+    // 下架商品，并记录菜单变更
+    Boolean offShelf(Integer id);
 }
@@ -0,0 +1,24 @@
+package org.example.service;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface IIdempotencyService {
+    /**
+     * 登记一个幂等键
+     * 返回 null 表示当前请求首次出现，由调用方创建订单并在结束后调用 finish；
+     * 否则返回原请求的结果（可能仍在处理中）
+     */
+    CompletableFuture<Long> begin(String key);
+
+    // 原请求处理结束，orderId 为空或不大于 0 表示下单未成功，键会被释放以便重试
+    void finish(String key, Long orderId);
+
+    /**
+     * 订单已交给写入流水线，键的结果以流水线的写入结果为准（而不是请求是否超时）；
+     * 调用后 finish 对该键不再生效，键在写入结果确定之前一直保持处理中
+     */
+    void attach(String key, CompletableFuture<Long> outcome);
+
+    // 查询数据库中该键已提交的订单ID，没有返回 null
+    Long findCommitted(String key);
+}
@@ -0,0 +1,32 @@
+package org.example.service;
+
+import org.example.dto.FoodStockDTO;
+import org.example.dto.StockReservation;
+
+import java.util.List;
+
+public interface IInventoryService {
+    // 按下单的商品ID列表预占库存，库存不足返回 null；调用方需先确认商品存在
+    StockReservation reserve(List<Integer> foodIds);
+
+    // 将预占绑定到订单，超时未支付会自动释放
+    void bind(Long orderId, StockReservation reservation);
+
+    // 订单支付成功，预占转为销量
+    boolean confirm(Long orderId);
+
+    // 订单取消，归还预占的库存
+    boolean release(Long orderId);
+
+    // 预占已超时的订单ID
+    List<Long> expiredReservations();
+
+    // 放弃尚未绑定订单的预占（如下单失败）
+    void cancel(StockReservation reservation);
+
+    // 补货，调用方需先确认商品存在
+    boolean restock(Integer foodId, long amount);
+
+    // 查询库存和销量，只读，不加载到内存
+    FoodStockDTO getStock(Integer foodId);
+}
@@ -0,0 +1,14 @@
+package org.example.service;
+
+import org.example.dto.MenuDeltaDTO;
+
+public interface IMenuSyncService {
+    // 获取商家当前菜单版本
+    long currentVersion(Integer businessId);
+
+    // 记录一次商品变更（新增、修改、下架）
+    void recordChange(Integer businessId, Integer foodId);
+
+    // 获取客户端版本之后的菜单增量，版本过旧时返回全量快照
+    MenuDeltaDTO getMenuDelta(Integer businessId, Long sinceVersion);
+}
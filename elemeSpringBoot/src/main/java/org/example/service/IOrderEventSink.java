@@ -0,0 +1,13 @@
+package org.example.service;
+
+import org.example.dto.OrderEventMessage;
+
+import java.util.List;
+
+/**
+ * 订单事件投递目标
+ * 抛出异常表示整批投递失败，这批事件会留在发件箱中下次重试
+ */
+public interface IOrderEventSink {
+    void publish(List<OrderEventMessage> batch) throws Exception;
+}
@@ -0,0 +1,15 @@
+package org.example.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface IOrderExportService {
+    /**
+     * 把下单日期在 [from, to] 内的订单（含归档）以 gzip 压缩的 csv 或 ndjson 写入输出流
+     */
+    void export(LocalDate from, LocalDate to, String format, OutputStream out) throws IOException;
+
+    // 该手机号的用户是否有导出权限（财务、管理员）
+    boolean canExport(String phoneNumber);
+}
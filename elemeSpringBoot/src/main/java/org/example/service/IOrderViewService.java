@@ -0,0 +1,20 @@
+package org.example.service;
+
+import org.example.dto.OrderDetailDTO;
+import org.example.entity.OrderView;
+
+import java.util.List;
+
+public interface IOrderViewService {
+    // 从读模型获取订单详情，读模型尚未就绪时返回 null，由调用方回退到订单表
+    OrderDetailDTO getDetail(Long orderId);
+
+    // 该用户已提交但读模型中还没有的订单ID
+    List<Long> unprojectedOrderIds(String userPhone);
+
+    // 读模型中的该订单是否落后于订单表
+    boolean isStale(Long orderId);
+
+    // 从读模型获取用户的全部订单（按下单时间倒序）
+    List<OrderView> getByUserPhone(String userPhone);
+}
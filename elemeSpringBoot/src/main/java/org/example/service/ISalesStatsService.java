@@ -0,0 +1,10 @@
+package org.example.service;
+
+import org.example.dto.SalesBucketDTO;
+
+import java.util.List;
+
+public interface ISalesStatsService {
+    // 商家最近若干小时的下单和支付统计，按小时升序
+    List<SalesBucketDTO> getHourlySales(Integer businessId, int hours);
+}
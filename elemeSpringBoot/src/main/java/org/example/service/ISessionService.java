@@ -0,0 +1,17 @@
+package org.example.service;
+
+import org.example.dto.UserProfile;
+
+public interface ISessionService {
+    // 登录成功后创建会话，返回令牌
+    String create(UserProfile profile);
+
+    /**
+     * 按令牌查找登录用户，命中时顺延过期时间
+     * 令牌不存在或已过期返回 null
+     */
+    UserProfile resolve(String token);
+
+    // 注销单个令牌
+    void invalidate(String token);
+}
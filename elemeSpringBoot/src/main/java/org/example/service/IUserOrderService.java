@@ -3,15 +3,27 @@ package org.example.service;
 
 
 import org.example.dto.OrderDetailDTO;
+import org.example.dto.OrderHistoryPage;
+import org.example.dto.OrderHistoryQuery;
 import org.example.dto.OrderRequestDTO;
 import org.example.entity.UserOrder;
 
 import java.util.List;
 
 public interface IUserOrderService {
-    UserOrder getById(Integer Id);
-    Integer addUserOrder(OrderRequestDTO orderRequestDTO);
-    Boolean havePayed(Integer Id);
+    UserOrder getById(Long Id);
+    Long addUserOrder(OrderRequestDTO orderRequestDTO);
+    // 带幂等键下单，同一用户重复提交同一个键时返回原订单ID
+    Long addUserOrder(OrderRequestDTO orderRequestDTO, String idempotencyKey);
+    Boolean havePayed(Long Id);
+    // 开始配送（已支付 -> 配送中）
+    Boolean startDelivery(Long Id);
+    // 确认送达（配送中 -> 已完成）
+    Boolean completeOrder(Long Id);
+    // 取消订单（未支付 -> 已取消），已支付的订单不能取消
+    Boolean cancelOrder(Long Id);
     List<UserOrder> getAllByUserPhone(String userPhone);
-    OrderDetailDTO getOrderDetail(Integer ID);
+    // 分页查询历史订单摘要，游标非法时返回 null
+    OrderHistoryPage getOrderHistory(OrderHistoryQuery query);
+    OrderDetailDTO getOrderDetail(Long ID);
 }
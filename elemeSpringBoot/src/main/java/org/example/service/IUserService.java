@@ -1,8 +1,11 @@
 package org.example.service;
 
+import org.example.dto.UserProfile;
 import org.example.entity.User;
 
 public interface IUserService {
     User login(String phoneNumber, String password);
     Integer register(String phoneNumber, String password, String confirmPassword, String name, String email);
+    // 按手机号获取用户资料（不含密码），用户不存在返回 null
+    UserProfile getProfile(String phoneNumber);
 }
@@ -0,0 +1,101 @@
+package org.example.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.example.util.TokenBucketLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 登录、注册、发送验证码接口的限流
+ * 按客户端 IP、手机号、邮箱分别维护令牌桶，超限的请求在调用任何业务服务之前返回 429；
+ * 被拒绝的次数按维度记录到 auth.ratelimit.rejected 指标
+ */
+@Component
+public class AuthRateLimiter {
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    //每个 IP：突发次数、每补充一次的毫秒数
+    @Value("${auth.rate-limit.ip.capacity:20}")
+    private int ipCapacity;
+    @Value("${auth.rate-limit.ip.refill-ms:3000}")
+    private long ipRefillMillis;
+    //每个手机号（登录、注册）
+    @Value("${auth.rate-limit.phone.capacity:5}")
+    private int phoneCapacity;
+    @Value("${auth.rate-limit.phone.refill-ms:12000}")
+    private long phoneRefillMillis;
+    //每个邮箱（发送验证码）
+    @Value("${auth.rate-limit.email.capacity:3}")
+    private int emailCapacity;
+    @Value("${auth.rate-limit.email.refill-ms:60000}")
+    private long emailRefillMillis;
+    //每个维度最多跟踪的键数量
+    @Value("${auth.rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    private TokenBucketLimiter ipLimiter;
+    private TokenBucketLimiter phoneLimiter;
+    private TokenBucketLimiter emailLimiter;
+    private Counter ipRejected;
+    private Counter phoneRejected;
+    private Counter emailRejected;
+
+    @PostConstruct
+    public void init() {
+        long now = System.currentTimeMillis();
+        ipLimiter = new TokenBucketLimiter(ipCapacity, ipRefillMillis, maxKeys, now);
+        phoneLimiter = new TokenBucketLimiter(phoneCapacity, phoneRefillMillis, maxKeys, now);
+        emailLimiter = new TokenBucketLimiter(emailCapacity, emailRefillMillis, maxKeys, now);
+        ipRejected = rejectedCounter("ip");
+        phoneRejected = rejectedCounter("phone");
+        emailRejected = rejectedCounter("email");
+    }
+
+    public boolean allowIp(String ip) {
+        return allow(ipLimiter, ipRejected, ip);
+    }
+
+    public boolean allowPhone(String phoneNumber) {
+        return allow(phoneLimiter, phoneRejected, phoneNumber);
+    }
+
+    public boolean allowEmail(String email) {
+        return allow(emailLimiter, emailRejected, email == null ? null : email.toLowerCase());
+    }
+
+    /**
+     * 定期移除已补满的桶
+     */
+    @Scheduled(fixedDelayString = "${auth.rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        ipLimiter.sweep(now);
+        phoneLimiter.sweep(now);
+        emailLimiter.sweep(now);
+    }
+
+    private static boolean allow(TokenBucketLimiter limiter, Counter rejected, String key) {
+        // 缺少参数的请求交给接口自己的参数校验
+        if (key == null || key.isEmpty()) {
+            return true;
+        }
+        if (limiter.tryAcquire(key, System.currentTimeMillis())) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    private Counter rejectedCounter(String dimension) {
+        return Counter.builder("auth.ratelimit.rejected")
+                .description("被限流拒绝的认证请求数")
+                .tag("dimension", dimension)
+                .register(meterRegistry);
+    }
+}
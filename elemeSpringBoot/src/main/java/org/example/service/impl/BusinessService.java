@@ -6,6 +6,7 @@ import org.example.entity.Food;
 import org.example.mapper.IBusinessMapper;
 import org.example.service.IBusinessService;
 import org.example.service.IFoodService;
+import org.example.service.IMenuSyncService;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -20,17 +21,17 @@ public class BusinessService implements IBusinessService {
     @Resource
     private IFoodService foodService;
 
+    @Resource
+    private IMenuSyncService menuSyncService;
+
     @Override
     public Business findBusinessById(Integer id) {
         Business business = businessMapper.findBusinessById(id);
         if (business != null) {
-            // 获取商品列表并处理折扣信息
+            // 先取版本再取菜单，保证客户端拿到的版本不会晚于菜单内容
+            business.setMenuVersion(menuSyncService.currentVersion(id));
+            // 获取上架商品列表（折扣列表已在加载时解析）
             List<Food> foodList = foodService.getFoodsByBusinessId(id);
-            for (Food food : foodList) {
-                if (food.getDiscount() != null) {
-                    food.setDiscount(food.getDiscount());
-                }
-            }
             
             // 处理商家的折扣和侧边栏数据
             if (business.getDiscounts() != null) {
@@ -147,4 +148,13 @@ public class BusinessService implements IBusinessService {
                 })
                 .toList();
     }
+
+    @Override
+    public boolean isOwnedBy(Integer businessId, String phoneNumber) {
+        if (businessId == null || phoneNumber == null) {
+            return false;
+        }
+        Business business = businessMapper.findBusinessById(businessId);
+        return business != null && phoneNumber.equals(business.getOwnerPhone());
+    }
 }
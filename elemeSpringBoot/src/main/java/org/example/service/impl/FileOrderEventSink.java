@@ -0,0 +1,47 @@
+package org.example.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import org.example.dto.OrderEventMessage;
+import org.example.service.IOrderEventSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 本地文件投递：每个事件一行 JSON 追加到文件，用于联调和测试
+ */
+@Component
+@ConditionalOnProperty(name = "order.outbox.sink", havingValue = "file")
+public class FileOrderEventSink implements IOrderEventSink {
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Value("${order.outbox.file-path:logs/order-events.ndjson}")
+    private String filePath;
+
+    @Override
+    public void publish(List<OrderEventMessage> batch) throws IOException {
+        Path path = Path.of(filePath);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        // 整批写完再落盘，一次投递只有一次 IO
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (OrderEventMessage message : batch) {
+                writer.write(objectMapper.writeValueAsString(message));
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.service.impl;
+
+import jakarta.annotation.Resource;
+import org.example.dto.PricedFood;
+import org.example.entity.Food;
+import org.example.mapper.IFoodMapper;
+import org.example.util.OrderPricer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 下单计价用的商品价格缓存
+ * 命中时不访问数据库，未命中的商品一次 findAllById 批量加载；
+ * 本实例修改商品时立即失效，其他实例或直接改库的修改在 ttl 后生效
+ */
+@Component
+public class FoodCatalogCache {
+
+    @Resource
+    private IFoodMapper foodMapper;
+
+    @Value("${order.pricing.cache-ttl-ms:60000}")
+    private long ttlMillis;
+
+    private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 批量获取商品快照，不存在的商品不会出现在结果中
+     */
+    public Map<Integer, PricedFood> getAll(Collection<Integer> ids) {
+        long now = System.currentTimeMillis();
+        Map<Integer, PricedFood> result = new HashMap<>();
+        List<Integer> misses = null;
+        for (Integer id : ids) {
+            if (id == null || result.containsKey(id)) {
+                continue;
+            }
+            Entry entry = entries.get(id);
+            if (entry != null && entry.expiresAt > now) {
+                result.put(id, entry.food);
+            } else {
+                if (misses == null) {
+                    misses = new ArrayList<>();
+                }
+                misses.add(id);
+            }
+        }
+        if (misses != null) {
+            for (Food food : foodMapper.findAllById(misses)) {
+                PricedFood priced = toPriced(food);
+                entries.put(food.getId(), new Entry(priced, now + ttlMillis));
+                result.put(food.getId(), priced);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 商品修改、上下架后失效
+     */
+    public void invalidate(Integer id) {
+        if (id != null) {
+            entries.remove(id);
+        }
+    }
+
+    private static PricedFood toPriced(Food food) {
+        long priceCents = food.getRedPrice() == null ? 0 : OrderPricer.toCents(food.getRedPrice());
+        boolean selling = food.getSelling() != null && food.getSelling() == 1;
+        return new PricedFood(food.getId(), food.getBusiness(), priceCents, selling);
+    }
+
+    private static final class Entry {
+        final PricedFood food;
+        final long expiresAt;
+
+        Entry(PricedFood food, long expiresAt) {
+            this.food = food;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -4,10 +4,12 @@ import jakarta.annotation.Resource;
 import org.example.entity.Food;
 import org.example.mapper.IFoodMapper;
 import org.example.service.IFoodService;
+import org.example.service.IMenuSyncService;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class FoodService implements IFoodService {
@@ -15,6 +17,12 @@ public class FoodService implements IFoodService {
     @Resource
     private IFoodMapper foodMapper;
 
+    @Resource
+    private IMenuSyncService menuSyncService;
+
+    @Resource
+    private FoodCatalogCache foodCatalogCache;
+
     @Override
     public List<Food> getFoodsByIds(Integer[] ids) {
         List<Food> foodList = new ArrayList<>();
@@ -34,17 +42,36 @@ public class FoodService implements IFoodService {
 
     @Override
     public List<Food> getFoodsByBusinessId(Integer businessId) {
-        // 获取商家的所有商品
-        List<Food> allFoods = foodMapper.findAllByBusiness(businessId);
-        // 过滤出上架的商品(selling=1)
-        return allFoods.stream()
-                .filter(food -> food.getSelling() != null && food.getSelling() == 1)
-                .peek(food -> {
-                    // 确保折扣信息被正确处理
-                    if (food.getDiscount() != null) {
-                        food.setDiscount(food.getDiscount());
-                    }
-                })
-                .toList();
+        // 只加载上架的商品(selling=1)，折扣列表已在实体加载时解析
+        return foodMapper.findAllByBusinessAndSelling(businessId, 1);
+    }
+
+    @Override
+    public Food saveFood(Food food) {
+        Food previous = foodMapper.findFoodById(food.getId());
+        Food saved = foodMapper.save(food);
+        // 商品换了商家时，原商家的菜单也要记录一次变更
+        if (previous != null && !Objects.equals(previous.getBusiness(), saved.getBusiness())) {
+            menuSyncService.recordChange(previous.getBusiness(), saved.getId());
+        }
+        menuSyncService.recordChange(saved.getBusiness(), saved.getId());
+        foodCatalogCache.invalidate(saved.getId());
+        return saved;
+    }
+
+    @Override
+    public Boolean offShelf(Integer id) {
+        Food food = foodMapper.findFoodById(id);
+        if (food == null) {
+            return false;
+        }
+        if (food.getSelling() != null && food.getSelling() == 0) {
+            return true;
+        }
+        food.setSelling(0);
+        foodMapper.save(food);
+        menuSyncService.recordChange(food.getBusiness(), id);
+        foodCatalogCache.invalidate(id);
+        return true;
     }
-} 
\ No newline at end of file
+}
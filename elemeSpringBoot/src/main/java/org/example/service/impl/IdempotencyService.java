@@ -0,0 +1,160 @@
+package org.example.service.impl;
+
+import jakarta.annotation.Resource;
+import org.example.entity.IdempotencyKey;
+import org.example.mapper.IIdempotencyKeyMapper;
+import org.example.service.IIdempotencyService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 下单幂等键服务
+ * 内存中的 ConcurrentHashMap 记录最近的键，重放请求不访问数据库；
+ * 内存未命中（重启或超出容量）时回查 idempotency_key 表，该表由订单写入流水线在同一事务中写入
+ */
+@Service
+public class IdempotencyService implements IIdempotencyService {
+
+    @Resource
+    IIdempotencyKeyMapper idempotencyKeyMapper;
+
+    //幂等键保留时间
+    @Value("${order.idempotency.ttl-ms:86400000}")
+    long ttlMillis;
+    //内存中最多保留的已完成键数量，超出后只依赖数据库
+    @Value("${order.idempotency.max-entries:100000}")
+    int maxEntries;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<Long> begin(String key) {
+        long now = System.currentTimeMillis();
+        Entry existing = entries.get(key);
+        if (existing != null && !existing.isExpired(now)) {
+            return existing.result;
+        }
+        //内存未命中时回查数据库
+        Optional<IdempotencyKey> stored = idempotencyKeyMapper.findById(key);
+        if (stored.isPresent()) {
+            long createdAt = stored.get().getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            if (createdAt + ttlMillis > now) {
+                Entry done = new Entry(createdAt + ttlMillis);
+                done.result.complete(stored.get().getOrderId());
+                if (entries.size() < maxEntries) {
+                    entries.put(key, done);
+                }
+                return done.result;
+            }
+        }
+        //登记为处理中，并发的相同请求等待这一次的结果
+        Entry pending = new Entry(Long.MAX_VALUE);
+        while (true) {
+            Entry previous = entries.putIfAbsent(key, pending);
+            if (previous == null) {
+                return null;
+            }
+            if (!previous.isExpired(now)) {
+                return previous.result;
+            }
+            entries.remove(key, previous);
+        }
+    }
+
+    @Override
+    public void finish(String key, Long orderId) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.attached) {
+            return;
+        }
+        complete(key, entry, orderId);
+    }
+
+    @Override
+    public void attach(String key, CompletableFuture<Long> outcome) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return;
+        }
+        entry.attached = true;
+        outcome.whenComplete((orderId, error) -> {
+            if (error == null) {
+                complete(key, entry, orderId);
+                return;
+            }
+            //同一个键已由其他实例或更早的请求提交（唯一键冲突），返回已提交的订单
+            Long committed = null;
+            try {
+                committed = findCommitted(key);
+            } catch (Exception e) {
+                System.err.println("查询幂等键失败: " + e.getMessage());
+            }
+            complete(key, entry, committed);
+        });
+    }
+
+    @Override
+    public Long findCommitted(String key) {
+        return idempotencyKeyMapper.findById(key).map(IdempotencyKey::getOrderId).orElse(null);
+    }
+
+    private void complete(String key, Entry entry, Long orderId) {
+        if (orderId == null) {
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(new RejectedExecutionException("原请求处理失败，请重试"));
+            return;
+        }
+        if (orderId <= 0 || entries.size() > maxEntries) {
+            //下单失败不保留，客户端可用同一个键重试；超出容量时由数据库兜底
+            entries.remove(key, entry);
+        } else {
+            entry.expiresAt = System.currentTimeMillis() + ttlMillis;
+        }
+        entry.result.complete(orderId);
+    }
+
+    /**
+     * 定时清理内存中过期的键
+     */
+    @Scheduled(fixedDelayString = "${order.idempotency.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    /**
+     * 定时删除数据库中过期的键
+     */
+    @Scheduled(fixedDelayString = "${order.idempotency.purge-interval-ms:3600000}")
+    public void purge() {
+        try {
+            idempotencyKeyMapper.deleteExpired(LocalDateTime.now().minus(Duration.ofMillis(ttlMillis)));
+        } catch (Exception e) {
+            System.err.println("清理过期幂等键失败: " + e.getMessage());
+        }
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Long> result = new CompletableFuture<>();
+        volatile long expiresAt;
+        // 已交给写入流水线，结果由流水线完成
+        volatile boolean attached;
+
+        Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.service.impl;
+
+import jakarta.annotation.Resource;
+import org.example.dto.OrderEventMessage;
+import org.example.service.IOrderEventSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 进程内投递：把事件作为 Spring 事件发布，下游用 @EventListener(OrderEventMessage) 订阅
+ */
+@Component
+@ConditionalOnProperty(name = "order.outbox.sink", havingValue = "in-process", matchIfMissing = true)
+public class InProcessOrderEventSink implements IOrderEventSink {
+
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(List<OrderEventMessage> batch) {
+        for (OrderEventMessage message : batch) {
+            eventPublisher.publishEvent(message);
+        }
+    }
+}
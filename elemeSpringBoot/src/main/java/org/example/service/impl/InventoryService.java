@@ -0,0 +1,296 @@
+package org.example.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.example.dto.FoodStockDTO;
+import org.example.dto.StockReservation;
+import org.example.entity.FoodStock;
+import org.example.mapper.IFoodStockMapper;
+import org.example.service.IInventoryService;
+import org.example.util.StripedStockCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 库存服务
+ * 库存和销量保存在内存中的无锁计数器里，下单时原子预占，支付时转为销量，
+ * 取消或超时归还；数据库只接收定时汇总的增量，不会每单都锁一次库存行。
+ * 预占不落库，启动时按未支付订单的明细重新预占，到期的由超时取消任务处理
+ */
+@Service
+public class InventoryService implements IInventoryService {
+
+    @Resource
+    private IFoodStockMapper foodStockMapper;
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    // 预占超时时间，默认 15 分钟
+    @Value("${inventory.reservation-timeout-ms:900000}")
+    private long reservationTimeoutMillis;
+
+    // 启动时重建预占的未支付订单时间范围，更早的订单不再处理
+    @Value("${inventory.recover-window-ms:86400000}")
+    private long recoverWindowMillis;
+
+    // 每个商品的库存分段数，0 表示按 CPU 核数
+    @Value("${inventory.stripes:0}")
+    private int stripes;
+
+    // 商品ID -> 库存单元
+    private final ConcurrentHashMap<Integer, StockCell> cells = new ConcurrentHashMap<>();
+    // 订单ID -> 预占
+    private final ConcurrentHashMap<Long, StockReservation> reservations = new ConcurrentHashMap<>();
+
+    @Override
+    public StockReservation reserve(List<Integer> foodIds) {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (Integer foodId : foodIds) {
+            quantities.merge(foodId, 1, Integer::sum);
+        }
+        Map<Integer, Integer> acquired = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            StockCell cell = cell(entry.getKey());
+            if (!cell.tryAcquire(entry.getValue())) {
+                // 任意一个商品库存不足，归还已经扣减的部分
+                acquired.forEach((foodId, quantity) -> cell(foodId).release(quantity));
+                return null;
+            }
+            acquired.put(entry.getKey(), entry.getValue());
+        }
+        return new StockReservation(quantities, System.currentTimeMillis() + reservationTimeoutMillis);
+    }
+
+    @Override
+    public void bind(Long orderId, StockReservation reservation) {
+        if (orderId != null && reservation != null) {
+            reservations.put(orderId, reservation);
+        }
+    }
+
+    @Override
+    public boolean confirm(Long orderId) {
+        StockReservation reservation = reservations.remove(orderId);
+        if (reservation == null) {
+            return false;
+        }
+        reservation.getQuantities().forEach((foodId, quantity) -> cell(foodId).soldPending.add(quantity));
+        return true;
+    }
+
+    @Override
+    public boolean release(Long orderId) {
+        StockReservation reservation = reservations.remove(orderId);
+        if (reservation == null) {
+            return false;
+        }
+        cancel(reservation);
+        return true;
+    }
+
+    @Override
+    public void cancel(StockReservation reservation) {
+        if (reservation != null) {
+            reservation.getQuantities().forEach((foodId, quantity) -> cell(foodId).release(quantity));
+        }
+    }
+
+    @Override
+    public boolean restock(Integer foodId, long amount) {
+        if (foodId == null || amount <= 0) {
+            return false;
+        }
+        StockCell cell = cell(foodId);
+        if (cell.counter == null) {
+            // 不限量商品首次补货时创建库存记录；并发补货只有一个线程创建，补货量都加到同一个计数器上
+            cell = cells.compute(foodId, (id, current) ->
+                    current != null && current.counter != null ? current : createStock(id, current));
+        }
+        cell.counter.release(amount);
+        cell.restockPending.add(amount);
+        return true;
+    }
+
+    @Override
+    public FoodStockDTO getStock(Integer foodId) {
+        StockCell cell = cells.get(foodId);
+        if (cell != null) {
+            Long stock = cell.counter != null ? cell.counter.available() : null;
+            return new FoodStockDTO(foodId, stock, cell.flushedSold + cell.soldPending.sum());
+        }
+        //查询接口不创建库存单元，任意商品ID都不会让内存中的表增长；只在下单、补货时为已存在的商品创建
+        FoodStock stock = foodStockMapper.findById(foodId).orElse(null);
+        if (stock == null) {
+            return new FoodStockDTO(foodId, null, 0L);
+        }
+        return new FoodStockDTO(foodId, stock.getStock(), stock.getSold() != null ? stock.getSold() : 0L);
+    }
+
+    /**
+     * 定时把累计的库存、销量增量写回数据库
+     */
+    @Scheduled(fixedDelayString = "${inventory.flush-interval-ms:1000}")
+    public void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        cells.forEach((foodId, cell) -> {
+            if (cell.counter == null) {
+                return; // 不限量商品没有库存记录
+            }
+            long sold = cell.soldPending.sumThenReset();
+            long restocked = cell.restockPending.sumThenReset();
+            if (sold == 0 && restocked == 0) {
+                return;
+            }
+            try {
+                foodStockMapper.applyDelta(foodId, restocked - sold, sold, now);
+                cell.flushedSold += sold;
+            } catch (Exception e) {
+                // 写回失败时把增量放回去，下次重试
+                cell.soldPending.add(sold);
+                cell.restockPending.add(restocked);
+                System.err.println("库存同步失败: foodId=" + foodId + ", " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public List<Long> expiredReservations() {
+        long now = System.currentTimeMillis();
+        List<Long> expired = new ArrayList<>();
+        reservations.forEach((orderId, reservation) -> {
+            if (reservation.isExpired(now)) {
+                expired.add(orderId);
+            }
+        });
+        return expired;
+    }
+
+    /**
+     * 启动时按未支付订单的明细重新预占库存
+     * 预占只保存在内存中，重启后不重建会导致这些订单占用的库存被再次售出、支付后也不计入销量
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverReservations() {
+        Map<Long, Map<Integer, Integer>> quantities = new HashMap<>();
+        Map<Long, Long> createdAt = new HashMap<>();
+        try {
+            jdbcTemplate.query("select o.id, o.created_at, l.food_id, l.quantity from user_order o " +
+                            "join order_line l on l.order_id = o.id where o.state = 0 and o.created_at >= ?",
+                    (RowCallbackHandler) rs -> {
+                        long orderId = rs.getLong(1);
+                        Timestamp created = rs.getTimestamp(2);
+                        createdAt.put(orderId, created != null ? created.getTime() : System.currentTimeMillis());
+                        quantities.computeIfAbsent(orderId, key -> new HashMap<>())
+                                .merge(rs.getInt(3), rs.getInt(4), Integer::sum);
+                    },
+                    new Timestamp(System.currentTimeMillis() - recoverWindowMillis));
+        } catch (Exception e) {
+            System.err.println("重建库存预占失败: " + e.getMessage());
+            return;
+        }
+        int recovered = 0;
+        for (Map.Entry<Long, Map<Integer, Integer>> order : quantities.entrySet()) {
+            if (reservations.containsKey(order.getKey())) {
+                continue;
+            }
+            // 只记录实际预占到的数量，支付或取消时不会多转销量、多归还
+            Map<Integer, Integer> acquired = new HashMap<>();
+            order.getValue().forEach((foodId, quantity) -> {
+                if (cell(foodId).tryAcquire(quantity)) {
+                    acquired.put(foodId, quantity);
+                }
+            });
+            long deadline = createdAt.get(order.getKey()) + reservationTimeoutMillis;
+            bind(order.getKey(), new StockReservation(acquired, deadline));
+            recovered++;
+        }
+        System.out.println("已重建 " + recovered + " 个未支付订单的库存预占");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private StockCell cell(Integer foodId) {
+        StockCell cell = cells.get(foodId);
+        if (cell != null) {
+            return cell;
+        }
+        return cells.computeIfAbsent(foodId, this::loadCell);
+    }
+
+    private StockCell loadCell(Integer foodId) {
+        Optional<FoodStock> stock = foodStockMapper.findById(foodId);
+        if (stock.isEmpty()) {
+            return new StockCell(null, 0);
+        }
+        FoodStock foodStock = stock.get();
+        long available = foodStock.getStock() != null ? foodStock.getStock() : 0;
+        long sold = foodStock.getSold() != null ? foodStock.getSold() : 0;
+        return new StockCell(newCounter(available), sold);
+    }
+
+    // 为不限量商品创建库存记录，其他实例已创建时沿用数据库中的记录
+    private StockCell createStock(Integer foodId, StockCell unlimited) {
+        long soldPending = unlimited != null ? unlimited.soldPending.sumThenReset() : 0;
+        StockCell loaded = loadCell(foodId);
+        if (loaded.counter != null) {
+            loaded.soldPending.add(soldPending);
+            return loaded;
+        }
+        FoodStock stock = new FoodStock();
+        stock.setFoodId(foodId);
+        stock.setStock(0L);
+        stock.setSold(soldPending);
+        stock.setUpdatedAt(LocalDateTime.now());
+        foodStockMapper.save(stock);
+        return new StockCell(newCounter(0), soldPending);
+    }
+
+    private StripedStockCounter newCounter(long available) {
+        int stripeCount = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        return new StripedStockCounter(available, stripeCount);
+    }
+
+    /**
+     * 单个商品的库存单元，counter 为 null 表示不限量
+     */
+    private static final class StockCell {
+        final StripedStockCounter counter;
+        final LongAdder soldPending = new LongAdder();
+        final LongAdder restockPending = new LongAdder();
+        // 已写回数据库的累计销量，只由同步线程修改
+        volatile long flushedSold;
+
+        StockCell(StripedStockCounter counter, long flushedSold) {
+            this.counter = counter;
+            this.flushedSold = flushedSold;
+        }
+
+        boolean tryAcquire(int quantity) {
+            return counter == null || counter.tryAcquire(quantity);
+        }
+
+        void release(int quantity) {
+            if (counter != null) {
+                counter.release(quantity);
+            }
+        }
+    }
+}
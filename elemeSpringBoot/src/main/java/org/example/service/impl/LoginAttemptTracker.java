@@ -0,0 +1,235 @@
+package org.example.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.example.mapper.IUserMapper;
+import org.example.util.ValidationUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录失败次数记账
+ * 失败次数按手机号保存在内存中（每个手机号单独加锁，互不影响），在时间窗口内累计，锁定判断只看内存；
+ * 数据库只在状态变化（锁定、重置）时由后台线程写入，其余计数定期批量落库，
+ * 针对单个账号的暴力破解不会让请求在同一行记录上排队
+ */
+@Component
+public class LoginAttemptTracker {
+
+    @Resource
+    private IUserMapper userMapper;
+    @Resource
+    private UserProfileCache userProfileCache;
+
+    //失败次数统计窗口，窗口结束后重新计数
+    @Value("${user.login-attempts.window-ms:900000}")
+    private long windowMillis;
+    //内存中最多跟踪的手机号数量，超出后退回到直接更新数据库
+    @Value("${user.login-attempts.max-entries:100000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<String, Attempts> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Boolean> dirty = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor writer;
+
+    @PostConstruct
+    public void start() {
+        writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(10000), runnable -> {
+                    Thread thread = new Thread(runnable, "login-attempt-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        writer.shutdownNow();
+        flush();
+    }
+
+    /**
+     * 记录一次登录失败，返回账户当前是否已锁定
+     * persistedAttempts 为数据库中已记录的次数，内存中没有该手机号时以它为起点
+     */
+    public boolean recordFailure(String phoneNumber, Integer persistedAttempts) {
+        long now = System.currentTimeMillis();
+        Attempts attempts = entries.get(phoneNumber);
+        if (attempts == null) {
+            if (entries.size() >= maxEntries) {
+                // 内存已满，退回到单条 UPDATE
+                userMapper.incrementLoginAttempts(phoneNumber, ValidationUtils.MAX_LOGIN_ATTEMPTS);
+                userProfileCache.invalidate(phoneNumber);
+                return persistedAttempts != null && persistedAttempts + 1 >= ValidationUtils.MAX_LOGIN_ATTEMPTS;
+            }
+            int seed = persistedAttempts == null ? 0 : persistedAttempts;
+            attempts = entries.computeIfAbsent(phoneNumber, key -> new Attempts(seed, now));
+        }
+        boolean transition = false;
+        synchronized (attempts) {
+            if (attempts.locked) {
+                // 已锁定后不再计数
+                return true;
+            }
+            if (now - attempts.windowStart >= windowMillis) {
+                attempts.count = 0;
+                attempts.windowStart = now;
+            }
+            attempts.count++;
+            if (attempts.count >= ValidationUtils.MAX_LOGIN_ATTEMPTS) {
+                attempts.locked = true;
+                transition = true;
+            }
+        }
+        dirty.put(phoneNumber, Boolean.TRUE);
+        if (transition) {
+            // 锁定立即落库，不等定期批量写入
+            submit(() -> persist(phoneNumber));
+        }
+        return transition;
+    }
+
+    /**
+     * 内存中的失败次数，没有记录时返回数据库中的值
+     */
+    public int attempts(String phoneNumber, Integer persistedAttempts) {
+        Attempts attempts = entries.get(phoneNumber);
+        if (attempts != null) {
+            synchronized (attempts) {
+                // 窗口已结束时数据库中的次数同样过期（定期写入会把它清零），按 0 计
+                return System.currentTimeMillis() - attempts.windowStart < windowMillis ? attempts.count : 0;
+            }
+        }
+        return persistedAttempts == null ? 0 : persistedAttempts;
+    }
+
+    /**
+     * 内存中是否已锁定（可能尚未写入数据库）
+     */
+    public boolean isLocked(String phoneNumber) {
+        Attempts attempts = entries.get(phoneNumber);
+        return attempts != null && attempts.locked;
+    }
+
+    /**
+     * 锁定账户（失败次数已达上限但尚未锁定的旧数据）
+     */
+    public void lock(String phoneNumber) {
+        Attempts attempts = entries.computeIfAbsent(phoneNumber,
+                key -> new Attempts(ValidationUtils.MAX_LOGIN_ATTEMPTS, System.currentTimeMillis()));
+        synchronized (attempts) {
+            attempts.locked = true;
+        }
+        dirty.put(phoneNumber, Boolean.TRUE);
+        submit(() -> persist(phoneNumber));
+    }
+
+    /**
+     * 登录成功，清除失败记录；数据库中有失败次数时在后台重置
+     */
+    public void recordSuccess(String phoneNumber, Integer persistedAttempts) {
+        Attempts removed = entries.remove(phoneNumber);
+        dirty.remove(phoneNumber);
+        if (removed != null || (persistedAttempts != null && persistedAttempts != 0)) {
+            submit(() -> {
+                userMapper.resetLoginAttempts(phoneNumber);
+                userProfileCache.invalidate(phoneNumber);
+            });
+        }
+    }
+
+    /**
+     * 定期把变化的失败次数写入数据库，并清理窗口已结束且已落库的记录
+     * 清理前把未锁定账户在数据库中的次数写回 0，之后的失败从数据库取起点时不会沿用上个窗口的次数
+     */
+    @Scheduled(fixedDelayString = "${user.login-attempts.flush-interval-ms:5000}")
+    public void flush() {
+        for (String phoneNumber : dirty.keySet()) {
+            persist(phoneNumber);
+        }
+        for (Map.Entry<String, Attempts> entry : entries.entrySet()) {
+            String phoneNumber = entry.getKey();
+            Attempts attempts = entry.getValue();
+            if (dirty.containsKey(phoneNumber)) {
+                continue;
+            }
+            long windowStart;
+            boolean reset;
+            synchronized (attempts) {
+                windowStart = attempts.windowStart;
+                if (System.currentTimeMillis() - windowStart < windowMillis) {
+                    continue;
+                }
+                reset = !attempts.locked && attempts.count > 0;
+            }
+            if (reset) {
+                try {
+                    userMapper.saveLoginAttempts(phoneNumber, 0, false);
+                    userProfileCache.invalidate(phoneNumber);
+                } catch (Exception e) {
+                    // 写入失败时保留记录，下次再清理
+                    System.err.println("重置过期的登录失败次数时发生异常: " + e.getMessage());
+                    continue;
+                }
+            }
+            synchronized (attempts) {
+                // 期间又有失败记录开启了新窗口时保留
+                if (attempts.windowStart == windowStart) {
+                    entries.remove(phoneNumber, attempts);
+                }
+            }
+        }
+    }
+
+    private void persist(String phoneNumber) {
+        if (dirty.remove(phoneNumber) == null) {
+            return;
+        }
+        Attempts attempts = entries.get(phoneNumber);
+        if (attempts == null) {
+            return;
+        }
+        int count;
+        boolean locked;
+        synchronized (attempts) {
+            count = attempts.count;
+            locked = attempts.locked;
+        }
+        try {
+            userMapper.saveLoginAttempts(phoneNumber, count, locked);
+            userProfileCache.invalidate(phoneNumber);
+        } catch (Exception e) {
+            // 写入失败时保留标记，下次再写
+            dirty.put(phoneNumber, Boolean.TRUE);
+            System.err.println("保存登录失败次数时发生异常: " + e.getMessage());
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            writer.execute(task);
+        } catch (RejectedExecutionException e) {
+            // 队列已满时由定期写入兜底
+        }
+    }
+
+    private static final class Attempts {
+        int count;
+        long windowStart;
+        volatile boolean locked;
+
+        Attempts(int count, long windowStart) {
+            this.count = count;
+            this.windowStart = windowStart;
+        }
+    }
+}
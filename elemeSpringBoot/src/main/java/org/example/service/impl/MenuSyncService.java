@@ -0,0 +1,126 @@
+package org.example.service.impl;
+
+import jakarta.annotation.Resource;
+import org.example.dto.MenuDeltaDTO;
+import org.example.entity.Business;
+import org.example.entity.Food;
+import org.example.mapper.IFoodMapper;
+import org.example.service.IBusinessService;
+import org.example.service.IMenuSyncService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 菜单增量同步服务
+ * 菜单版本和变更记录都保存在数据库中（menu_version、menu_change），所有实例共用，
+ * 客户端无论连到哪个实例，拿到的版本号和增量都一致，任何实例上的修改都能同步到。
+ * 客户端带着上次的版本号来取增量，没有版本或版本过旧时返回全量快照
+ */
+@Service
+public class MenuSyncService implements IMenuSyncService {
+
+    private static final String BUMP_SQL = "INSERT INTO menu_version (business_id, version) VALUES (?, 1) " +
+            "ON DUPLICATE KEY UPDATE version = version + 1";
+    private static final String VERSION_SQL = "SELECT version FROM menu_version WHERE business_id = ?";
+    private static final String APPEND_SQL = "INSERT INTO menu_change (business_id, version, food_id) VALUES (?, ?, ?)";
+    private static final String PRUNE_SQL = "DELETE FROM menu_change WHERE business_id = ? AND version <= ?";
+    private static final String CHANGES_SQL = "SELECT food_id FROM menu_change WHERE business_id = ? AND version > ?";
+
+    @Resource
+    private IFoodMapper foodMapper;
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    // BusinessService 依赖本服务获取版本号，这里延迟注入避免循环依赖
+    @Lazy
+    @Resource
+    private IBusinessService businessService;
+
+    // 客户端版本落后超过该条数时返回全量快照
+    @Value("${menu.change-log-capacity:256}")
+    private int changeLogCapacity;
+
+    @Override
+    public long currentVersion(Integer businessId) {
+        try {
+            List<Long> versions = jdbcTemplate.queryForList(VERSION_SQL, Long.class, businessId);
+            return versions.isEmpty() || versions.get(0) == null ? 0 : versions.get(0);
+        } catch (DataAccessException e) {
+            // 版本不可用时返回 0，客户端下次取全量
+            System.err.println("读取菜单版本失败: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 在商品写入提交之后调用：版本加一与变更记录在同一事务中提交，
+     * 版本行锁使同一商家的变更按版本顺序提交，客户端看到某个版本时，之前的变更都已可见
+     */
+    @Override
+    public void recordChange(Integer businessId, Integer foodId) {
+        if (businessId == null || foodId == null) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(BUMP_SQL, businessId);
+            Long version = jdbcTemplate.queryForObject(VERSION_SQL, Long.class, businessId);
+            jdbcTemplate.update(APPEND_SQL, businessId, version, foodId);
+            // 保留两倍容量的记录，读取增量期间的并发变更不会删掉客户端还需要的记录
+            if (version > 2L * changeLogCapacity) {
+                jdbcTemplate.update(PRUNE_SQL, businessId, version - 2L * changeLogCapacity);
+            }
+        });
+    }
+
+    @Override
+    public MenuDeltaDTO getMenuDelta(Integer businessId, Long sinceVersion) {
+        // 先读版本再读变更，期间的变更最多被客户端重复拿到一次，不会遗漏
+        long version = currentVersion(businessId);
+        // 没有版本、版本比当前新（数据被重置）或落后太多时返回全量
+        Set<Integer> changedIds = null;
+        if (sinceVersion != null && sinceVersion >= 0 && sinceVersion <= version
+                && version - sinceVersion <= changeLogCapacity) {
+            changedIds = new HashSet<>(jdbcTemplate.queryForList(CHANGES_SQL, Integer.class, businessId, sinceVersion));
+        }
+
+        MenuDeltaDTO delta = new MenuDeltaDTO();
+        delta.setBusinessId(businessId);
+        if (changedIds == null) {
+            Business business = businessService.findBusinessById(businessId);
+            if (business == null) {
+                return null;
+            }
+            delta.setVersion(business.getMenuVersion());
+            delta.setFull(true);
+            delta.setBusiness(business);
+            return delta;
+        }
+
+        List<Food> changed = new ArrayList<>();
+        List<Integer> removed = new ArrayList<>(changedIds);
+        if (!changedIds.isEmpty()) {
+            for (Food food : foodMapper.findAllById(changedIds)) {
+                if (businessId.equals(food.getBusiness()) && food.getSelling() != null && food.getSelling() == 1) {
+                    changed.add(food);
+                    removed.remove(food.getId());
+                }
+            }
+        }
+        delta.setVersion(version);
+        delta.setFull(false);
+        delta.setChanged(changed);
+        delta.setRemoved(removed);
+        return delta;
+    }
+}
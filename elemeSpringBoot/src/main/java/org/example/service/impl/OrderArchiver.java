@@ -0,0 +1,132 @@
+package org.example.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单归档任务
+ * 定期把超过保留期的订单及其明细分批迁移到 user_order_archive / order_line_archive，
+ * 每批在一个事务内完成 复制 + 删除，热表只保留近期订单；
+ * 历史查询和详情查询会自动合并/回退到归档表。
+ * 迁移在独立的归档线程中执行，批与批之间暂停片刻，不占用共享的定时任务线程，也给在线写入让出数据库
+ */
+@Component
+public class OrderArchiver {
+
+    private static final String SELECT_IDS_SQL =
+            "SELECT id FROM user_order WHERE created_at < ? ORDER BY created_at, id LIMIT ? FOR UPDATE";
+    private static final String COPY_ORDERS_SQL =
+            "INSERT INTO user_order_archive (id, businessid, user_phone, order_list, price, state, created_at, archived_at) " +
+            "SELECT id, businessid, user_phone, order_list, price, state, created_at, :now FROM user_order WHERE id IN (:ids)";
+    private static final String COPY_LINES_SQL =
+            "INSERT INTO order_line_archive (id, order_id, food_id, quantity, unit_price) " +
+            "SELECT id, order_id, food_id, quantity, unit_price FROM order_line WHERE order_id IN (:ids)";
+    private static final String DELETE_LINES_SQL = "DELETE FROM order_line WHERE order_id IN (:ids)";
+    private static final String DELETE_ORDERS_SQL = "DELETE FROM user_order WHERE id IN (:ids)";
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+    @Resource
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    //订单保留在热表中的天数
+    @Value("${order.archive.age-days:180}")
+    private int ageDays;
+    //每批迁移的订单数
+    @Value("${order.archive.batch-size:1000}")
+    private int batchSize;
+    //每次运行最多迁移的批数，避免长时间占用数据库
+    @Value("${order.archive.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+    //两批之间暂停的毫秒数
+    @Value("${order.archive.pause-ms:200}")
+    private long pauseMillis;
+
+    private ThreadPoolExecutor worker;
+
+    @PostConstruct
+    public void start() {
+        // 上一次归档还没结束时本次触发直接跳过，停机后提交的任务被丢弃
+        worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), runnable -> {
+                    Thread thread = new Thread(runnable, "order-archiver");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * 定时触发归档，只负责把任务交给归档线程
+     */
+    @Scheduled(fixedDelayString = "${order.archive.interval-ms:3600000}",
+            initialDelayString = "${order.archive.initial-delay-ms:600000}")
+    public void archive() {
+        if (worker.getActiveCount() > 0 || !worker.getQueue().isEmpty()) {
+            return;
+        }
+        worker.execute(this::runArchive);
+    }
+
+    private void runArchive() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(ageDays));
+        int total = 0;
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                int moved = archiveBatch(cutoff);
+                total += moved;
+                if (moved < batchSize) {
+                    break;
+                }
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            // 停机时中断，未迁移的订单下次继续
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("订单归档失败: " + e.getMessage());
+        }
+        if (total > 0) {
+            System.out.println("订单归档完成, 共 " + total + " 条");
+        }
+    }
+
+    private int archiveBatch(Timestamp cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_IDS_SQL, Long.class, cutoff, batchSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("ids", ids)
+                    .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+            namedParameterJdbcTemplate.update(COPY_ORDERS_SQL, params);
+            namedParameterJdbcTemplate.update(COPY_LINES_SQL, params);
+            namedParameterJdbcTemplate.update(DELETE_LINES_SQL, params);
+            namedParameterJdbcTemplate.update(DELETE_ORDERS_SQL, params);
+            return ids.size();
+        });
+        return moved == null ? 0 : moved;
+    }
+}
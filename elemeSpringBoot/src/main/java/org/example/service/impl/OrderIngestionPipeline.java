@@ -0,0 +1,229 @@
+package org.example.service.impl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.example.entity.OrderLine;
+import org.example.entity.UserOrder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单写入流水线（组提交）
+ * 下单请求进入有界队列，由单个写线程攒够 batch-size 条或等待 max-latency-ms 后，
+ * 在一个事务里用 JDBC 批量插入写入订单、订单明细、幂等键和下单事件（发件箱），再逐个完成调用方的 Future。
+ * batch-size 越大吞吐越高，max-latency-ms 决定低峰期单个订单最多额外等待多久
+ * 整批提交失败时逐条重试，一条坏数据（如幂等键冲突）不会让同批的其他订单失败
+ */
+@Component
+public class OrderIngestionPipeline {
+
+    private static final String INSERT_ORDER_SQL =
+            "INSERT INTO user_order (id, businessid, user_phone, order_list, price, state, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_LINE_SQL =
+            "INSERT INTO order_line (order_id, food_id, quantity, unit_price) VALUES (?, ?, ?, ?)";
+    // 幂等键主键冲突时整个事务回滚，同一个键最多对应一个订单
+    private static final String INSERT_KEY_SQL =
+            "INSERT INTO idempotency_key (idem_key, order_id, created_at) VALUES (?, ?, ?)";
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+    @Resource
+    private TransactionTemplate transactionTemplate;
+    @Resource
+    private MeterRegistry meterRegistry;
+    @Resource
+    private OrderOutboxWriter orderOutboxWriter;
+
+    @Value("${order.ingest.queue-capacity:8192}")
+    private int queueCapacity;
+    @Value("${order.ingest.batch-size:64}")
+    private int batchSize;
+    @Value("${order.ingest.max-latency-ms:5}")
+    private long maxLatencyMillis;
+
+    private BlockingQueue<PendingOrder> queue;
+    private Thread writer;
+    private volatile boolean running;
+    private DistributionSummary batchSizes;
+    private Timer batchWriteTimer;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        batchSizes = DistributionSummary.builder("order.ingest.batch.size")
+                .description("每次组提交写入的订单数")
+                .serviceLevelObjectives(1, 2, 4, 8, 16, 32, 64, 128, 256)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        batchWriteTimer = Timer.builder("order.ingest.batch.write")
+                .description("每次组提交的事务耗时")
+                .register(meterRegistry);
+        Gauge.builder("order.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("等待写入的订单数")
+                .register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::runWriter, "order-ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 提交一个订单，返回在批量写入提交后完成的 Future（结果为订单ID）
+     * 队列已满时立即失败，不阻塞请求线程
+     */
+    public CompletableFuture<Long> submit(UserOrder order, List<OrderLine> lines, String idempotencyKey) {
+        PendingOrder pending = new PendingOrder(order, lines, idempotencyKey);
+        if (!running || !queue.offer(pending)) {
+            pending.future.completeExceptionally(new RejectedExecutionException("订单写入队列已满"));
+        }
+        return pending.future;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // 写线程最多 1 秒内发现停止标记，把队列中剩余的订单写完后退出
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void runWriter() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+                while (batch.size() < batchSize) {
+                    // 先把已经排队的一次性取走，不够再等到截止时间
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingOrder next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // 停止时把剩余订单写完再退出
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingOrder> batch) {
+        batchSizes.record(batch.size());
+        try {
+            batchWriteTimer.record(() -> transactionTemplate.executeWithoutResult(status -> insertOrders(batch)));
+            for (PendingOrder pending : batch) {
+                pending.future.complete(pending.order.getId());
+            }
+        } catch (RuntimeException e) {
+            System.err.println("批量写入订单失败, 共 " + batch.size() + " 条，逐条重试: " + e.getMessage());
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            //整批已回滚，逐条单独提交，只有出错的订单失败
+            for (PendingOrder pending : batch) {
+                writeOne(pending);
+            }
+        }
+    }
+
+    private void writeOne(PendingOrder pending) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertOrders(List.of(pending)));
+            pending.future.complete(pending.order.getId());
+        } catch (RuntimeException e) {
+            System.err.println("写入订单失败: " + pending.order.getId() + ", " + e.getMessage());
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    private void insertOrders(List<PendingOrder> batch) {
+        jdbcTemplate.batchUpdate(INSERT_ORDER_SQL, batch, batch.size(), (ps, pending) -> {
+            UserOrder order = pending.order;
+            ps.setLong(1, order.getId());
+            ps.setObject(2, order.getBusinessID());
+            ps.setString(3, order.getUserPhone());
+            ps.setString(4, order.getOrderList());
+            ps.setObject(5, order.getPrice());
+            ps.setInt(6, order.getState());
+            ps.setTimestamp(7, Timestamp.valueOf(order.getCreatedAt()));
+        });
+        List<UserOrder> orders = new ArrayList<>(batch.size());
+        List<OrderLine> lines = new ArrayList<>();
+        List<PendingOrder> keyed = new ArrayList<>();
+        for (PendingOrder pending : batch) {
+            orders.add(pending.order);
+            lines.addAll(pending.lines);
+            if (pending.idempotencyKey != null) {
+                keyed.add(pending);
+            }
+        }
+        if (!lines.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_LINE_SQL, lines, lines.size(), (ps, line) -> {
+                ps.setLong(1, line.getOrderId());
+                ps.setInt(2, line.getFoodId());
+                ps.setInt(3, line.getQuantity());
+                ps.setDouble(4, line.getUnitPrice());
+            });
+        }
+        if (!keyed.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_KEY_SQL, keyed, keyed.size(), (ps, pending) -> {
+                ps.setString(1, pending.idempotencyKey);
+                ps.setLong(2, pending.order.getId());
+                ps.setTimestamp(3, Timestamp.valueOf(pending.order.getCreatedAt()));
+            });
+        }
+        orderOutboxWriter.appendCreated(orders);
+    }
+
+    /**
+     * 排队中的订单
+     */
+    private static final class PendingOrder {
+        final UserOrder order;
+        final List<OrderLine> lines;
+        final String idempotencyKey;
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        PendingOrder(UserOrder order, List<OrderLine> lines, String idempotencyKey) {
+            this.order = order;
+            this.lines = lines;
+            this.idempotencyKey = idempotencyKey;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.example.dto.OrderEventMessage;
+import org.example.service.IOrderEventSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 发件箱投递任务
+ * 每次在一个事务里用 FOR UPDATE SKIP LOCKED 认领一批事件，投递成功后删除；
+ * 多个实例同时运行时各自认领不同的行，投递失败则事务回滚，事件留待下次重试
+ */
+@Component
+public class OrderOutboxRelay {
+
+    private static final String CLAIM_SQL =
+            "SELECT id, order_id, event_type, payload, created_at FROM order_outbox " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String DELETE_SQL = "DELETE FROM order_outbox WHERE id = ?";
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+    @Resource
+    private TransactionTemplate transactionTemplate;
+    @Resource
+    private IOrderEventSink orderEventSink;
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    //每批认领的事件数
+    @Value("${order.outbox.batch-size:500}")
+    private int batchSize;
+    //每次运行最多投递的批数，积压时分多次运行，不长时间占用定时任务线程
+    @Value("${order.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    private Counter publishedCounter;
+    private Counter failedCounter;
+    // 连续失败时只记录一次日志
+    private volatile boolean failing;
+
+    @PostConstruct
+    public void init() {
+        publishedCounter = Counter.builder("order.outbox.published")
+                .description("已投递的订单事件数")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("order.outbox.failed")
+                .description("投递失败的批次数")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            // 积压时连续投递，直到取到不满一批或达到本次上限，剩余的下次运行继续
+            int delivered;
+            int batches = 0;
+            do {
+                delivered = relayBatch();
+            } while (delivered == batchSize && ++batches < maxBatchesPerRun);
+            if (failing) {
+                failing = false;
+                System.out.println("订单事件投递已恢复");
+            }
+        } catch (Exception e) {
+            failedCounter.increment();
+            if (!failing) {
+                failing = true;
+                System.err.println("订单事件投递失败: " + e.getMessage());
+            }
+        }
+    }
+
+    private int relayBatch() {
+        Integer delivered = transactionTemplate.execute(status -> {
+            List<OrderEventMessage> batch = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new OrderEventMessage(
+                    rs.getLong("id"),
+                    rs.getLong("order_id"),
+                    rs.getString("event_type"),
+                    rs.getString("payload"),
+                    rs.getTimestamp("created_at").toLocalDateTime()), batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            try {
+                orderEventSink.publish(batch);
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            List<Object[]> ids = new ArrayList<>(batch.size());
+            for (OrderEventMessage message : batch) {
+                ids.add(new Object[]{message.getId()});
+            }
+            jdbcTemplate.batchUpdate(DELETE_SQL, ids);
+            return batch.size();
+        });
+        int count = delivered == null ? 0 : delivered;
+        publishedCounter.increment(count);
+        return count;
+    }
+}
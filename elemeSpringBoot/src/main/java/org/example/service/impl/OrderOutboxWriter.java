@@ -0,0 +1,86 @@
+package org.example.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import org.example.entity.OrderState;
+import org.example.entity.UserOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 写入订单事件发件箱
+ * 必须在订单写入或状态流转的事务中调用，事件与订单同时提交或同时回滚
+ */
+@Component
+public class OrderOutboxWriter {
+
+    public static final String ORDER_CREATED = "order.created";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO order_outbox (order_id, event_type, payload, created_at) VALUES (?, ?, ?, ?)";
+    // 状态变更事件的内容在同一条语句中从订单行取出，不必先查询再插入
+    private static final String INSERT_STATE_CHANGED_SQL =
+            "INSERT INTO order_outbox (order_id, event_type, payload, created_at) " +
+            "SELECT id, ?, JSON_OBJECT('orderId', id, 'businessID', businessid, 'userPhone', user_phone, " +
+            "'price', price, 'state', ?), ? " +
+            "FROM user_order WHERE id = ?";
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+    @Resource
+    private ObjectMapper objectMapper;
+
+    /**
+     * 批量写入下单事件
+     */
+    public void appendCreated(List<UserOrder> orders) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, orders, orders.size(), (ps, order) -> {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("orderId", order.getId());
+            payload.put("businessID", order.getBusinessID());
+            payload.put("userPhone", order.getUserPhone());
+            payload.put("orderList", order.getOrderList());
+            payload.put("price", order.getPrice());
+            payload.put("state", order.getState());
+            payload.put("createdAt", order.getCreatedAt());
+            ps.setLong(1, order.getId());
+            ps.setString(2, ORDER_CREATED);
+            ps.setString(3, toJson(payload));
+            ps.setTimestamp(4, Timestamp.valueOf(order.getCreatedAt()));
+        });
+    }
+
+    /**
+     * 写入状态变更事件，事件类型为 order. + 状态名，如 order.paid
+     * 事件带上商家、下单手机号和金额（INSERT ... SELECT 从订单行取出），下游统计和按用户推送不必再查订单；
+     * 订单行不存在时不写入事件并返回 false，不影响已完成的状态流转
+     */
+    public boolean appendStateChanged(Long orderId, OrderState state) {
+        int inserted = jdbcTemplate.update(INSERT_STATE_CHANGED_SQL, eventType(state), state.getCode(),
+                Timestamp.valueOf(LocalDateTime.now()), orderId);
+        if (inserted != 1) {
+            System.err.println("订单不存在, 未写入状态变更事件: " + orderId);
+            return false;
+        }
+        return true;
+    }
+
+    public static String eventType(OrderState state) {
+        return "order." + state.name().toLowerCase();
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("订单事件序列化失败", e);
+        }
+    }
+}
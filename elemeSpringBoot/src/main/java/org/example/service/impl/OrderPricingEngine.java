@@ -0,0 +1,51 @@
+package org.example.service.impl;
+
+import jakarta.annotation.Resource;
+import org.example.dto.PriceQuote;
+import org.example.util.OrderPricer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 订单计价引擎
+ * 以缓存中的商品现价为准计算应付金额，不再信任客户端提交的价格
+ */
+@Component
+public class OrderPricingEngine {
+
+    @Resource
+    private FoodCatalogCache foodCatalogCache;
+
+    //打包费（分）
+    @Value("${order.pricing.packaging-fee-cents:160}")
+    private long packagingFeeCents;
+    //配送费（分）
+    @Value("${order.pricing.delivery-fee-cents:300}")
+    private long deliveryFeeCents;
+    //允许客户端金额与服务端金额相差的分数（浮点显示误差）
+    @Value("${order.pricing.tolerance-cents:1}")
+    private long toleranceCents;
+
+    /**
+     * 计算订单价格，商品不存在、已下架或不属于该商家时返回 null
+     */
+    public PriceQuote quote(Integer businessId, List<Integer> orderList) {
+        if (businessId == null || orderList == null || orderList.isEmpty()) {
+            return null;
+        }
+        return OrderPricer.quote(businessId, orderList, foodCatalogCache.getAll(orderList),
+                packagingFeeCents + deliveryFeeCents);
+    }
+
+    /**
+     * 客户端金额是否与服务端计算结果一致，未提交金额时以服务端为准
+     */
+    public boolean matches(PriceQuote quote, Double clientPrice) {
+        if (clientPrice == null) {
+            return true;
+        }
+        return Math.abs(OrderPricer.toCents(clientPrice) - quote.getTotalCents()) <= toleranceCents;
+    }
+}
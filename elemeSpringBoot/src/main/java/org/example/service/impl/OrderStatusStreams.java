@@ -0,0 +1,222 @@
+package org.example.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.example.dto.OrderDetailDTO;
+import org.example.dto.OrderEventMessage;
+import org.example.entity.OrderState;
+import org.example.event.OrderChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 订单状态推送（Server-Sent Events）
+ * 连接以 SseEmitter 异步挂起，空闲时不占用请求线程，也不查询数据库；
+ * 单个订单的订阅按进程内订单变更事件推送，用户的订阅按发件箱投递的事件推送（事件内容带下单手机号）；
+ * 事件和心跳都由单独的推送线程写给订阅者，慢客户端不会拖慢下单、支付和其他定时任务
+ */
+@Component
+public class OrderStatusStreams {
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    //连接最长保持时间，超时后客户端 EventSource 会自动重连
+    @Value("${order.stream.timeout-ms:1800000}")
+    private long timeoutMillis;
+    //最大连接数
+    @Value("${order.stream.max-connections:10000}")
+    private int maxConnections;
+
+    private final ConcurrentHashMap<Long, List<SseEmitter>> byOrder = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, List<SseEmitter>> byUser = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private ThreadPoolExecutor dispatcher;
+
+    @PostConstruct
+    public void start() {
+        dispatcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(10000), runnable -> {
+                    Thread thread = new Thread(runnable, "order-stream-dispatcher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        dispatcher.shutdownNow();
+        byOrder.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        byUser.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+    }
+
+    /**
+     * 订阅单个订单，连接建立后先推送一次当前状态；连接数已满时返回 null
+     */
+    public SseEmitter subscribeOrder(Long orderId, OrderDetailDTO current) {
+        SseEmitter emitter = register(byOrder, orderId);
+        if (emitter != null && current != null) {
+            send(emitter, "state", payload(orderId, current.getState()));
+        }
+        return emitter;
+    }
+
+    /**
+     * 订阅某个用户所有订单的变更；连接数已满时返回 null
+     */
+    public SseEmitter subscribeUser(String userPhone) {
+        return register(byUser, userPhone);
+    }
+
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        //只有该订单有订阅者时才交给推送线程
+        if (!byOrder.containsKey(event.getOrderId())) {
+            return;
+        }
+        submit(event.getOrderId(), () -> dispatchOrder(event.getOrderId(), event.getState()));
+    }
+
+    /**
+     * 发件箱投递的订单事件，按事件内容中的下单手机号推送给该用户的订阅者
+     */
+    @EventListener
+    public void onOrderEvent(OrderEventMessage message) {
+        if (byUser.isEmpty()) {
+            return;
+        }
+        JsonNode payload;
+        try {
+            payload = objectMapper.readTree(message.getPayload());
+        } catch (JsonProcessingException e) {
+            System.err.println("订单事件内容无法解析: " + message.getId());
+            return;
+        }
+        JsonNode userPhone = payload.get("userPhone");
+        JsonNode state = payload.get("state");
+        if (userPhone == null || !userPhone.isTextual() || state == null || !state.isInt()
+                || !byUser.containsKey(userPhone.asText())) {
+            return;
+        }
+        submit(message.getOrderId(), () -> dispatchUser(userPhone.asText(), message.getOrderId(), state.asInt()));
+    }
+
+    /**
+     * 定时发送心跳，防止代理断开空闲连接，同时清理已断开的客户端
+     * 发送可能阻塞，交给推送线程执行，不占用共享的定时任务线程
+     */
+    @Scheduled(fixedDelayString = "${order.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        try {
+            dispatcher.execute(() -> {
+                SseEmitter.SseEventBuilder ping = SseEmitter.event().comment("ping");
+                byOrder.values().forEach(emitters -> emitters.forEach(emitter -> send(emitter, ping)));
+                byUser.values().forEach(emitters -> emitters.forEach(emitter -> send(emitter, ping)));
+            });
+        } catch (RejectedExecutionException e) {
+            // 推送积压时跳过本次心跳
+        }
+    }
+
+    private void submit(Long orderId, Runnable task) {
+        try {
+            dispatcher.execute(task);
+        } catch (RejectedExecutionException e) {
+            // 推送积压时丢弃，客户端重连后会收到最新状态
+            System.err.println("订单状态推送积压, 丢弃事件: " + orderId);
+        }
+    }
+
+    private void dispatchOrder(Long orderId, Integer state) {
+        List<SseEmitter> orderEmitters = byOrder.get(orderId);
+        if (orderEmitters == null) {
+            return;
+        }
+        Map<String, Object> data = payload(orderId, state);
+        boolean terminal = state != null
+                && (state == OrderState.CANCELLED.getCode() || state == OrderState.DONE.getCode());
+        for (SseEmitter emitter : orderEmitters) {
+            if (send(emitter, "state", data) && terminal) {
+                // 订单已结束，不会再有变更
+                emitter.complete();
+            }
+        }
+    }
+
+    private void dispatchUser(String userPhone, Long orderId, Integer state) {
+        List<SseEmitter> userEmitters = byUser.get(userPhone);
+        if (userEmitters == null) {
+            return;
+        }
+        Map<String, Object> data = payload(orderId, state);
+        for (SseEmitter emitter : userEmitters) {
+            send(emitter, "state", data);
+        }
+    }
+
+    private <K> SseEmitter register(ConcurrentHashMap<K, List<SseEmitter>> registry, K key) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        //加入和移除都在同一个键的 compute 中完成，移除空列表时不会丢掉并发加入的连接
+        registry.compute(key, (k, list) -> {
+            List<SseEmitter> emitters = list != null ? list : new CopyOnWriteArrayList<>();
+            emitters.add(emitter);
+            return emitters;
+        });
+        Runnable remove = () -> registry.computeIfPresent(key, (k, list) -> {
+            if (list.remove(emitter)) {
+                connections.decrementAndGet();
+            }
+            return list.isEmpty() ? null : list;
+        });
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+
+    private static Map<String, Object> payload(Long orderId, Integer state) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("orderId", orderId);
+        data.put("state", state);
+        return data;
+    }
+
+    private static boolean send(SseEmitter emitter, String name, Object data) {
+        return send(emitter, SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+    }
+
+    private static boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package org.example.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.example.dto.OrderDetailDTO;
+import org.example.dto.OrderDetailRow;
+import org.example.dto.OrderLineDTO;
+import org.example.entity.Business;
+import org.example.entity.Food;
+import org.example.entity.OrderLine;
+import org.example.entity.OrderView;
+import org.example.entity.UserOrder;
+import org.example.event.OrderChangedEvent;
+import org.example.mapper.IBusinessMapper;
+import org.example.mapper.IFoodMapper;
+import org.example.mapper.IOrderViewMapper;
+import org.example.mapper.IUserOrderMapper;
+import org.example.service.IOrderViewService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单读模型服务
+ * 订单变更事件交给单个投影线程按顺序写入 order_view，并放入最近订单缓存；
+ * 下单和支付线程只负责投递事件，不等待读模型写入，查询详情和历史时也不再联表读取订单表。
+ * 投影队列已满或写入失败的订单记为过期，查询时回退到订单表，并由定时任务重建；
+ * 已提交但还没写入读模型的新订单单独记录，查询历史时只对这些订单和过期订单回查订单表
+ */
+@Service
+public class OrderViewService implements IOrderViewService {
+
+    //每批补建的订单数
+    private static final int BACKFILL_BATCH = 500;
+
+    @Resource
+    private IOrderViewMapper orderViewMapper;
+    @Resource
+    private IUserOrderMapper userOrderMapper;
+    @Resource
+    private IBusinessMapper businessMapper;
+    @Resource
+    private IFoodMapper foodMapper;
+
+    //最近订单缓存容量
+    @Value("${order.view.cache-capacity:10000}")
+    private int cacheCapacity;
+    //待投影事件队列容量
+    @Value("${order.view.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor projector;
+    private final ConcurrentHashMap<Long, OrderDetailDTO> recent = new ConcurrentHashMap<>();
+    // 按放入顺序淘汰最早的缓存
+    private final ConcurrentLinkedQueue<Long> recentIds = new ConcurrentLinkedQueue<>();
+    // 读模型落后于订单表的订单
+    private final Set<Long> stale = ConcurrentHashMap.newKeySet();
+    // 读模型中还没有的新订单：订单ID -> 下单手机号，投影线程跟得上时只有少量条目
+    private final ConcurrentHashMap<Long, String> unprojected = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        projector = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "order-view-projector");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        projector.shutdown();
+        projector.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getType() == OrderChangedEvent.Type.CREATED && event.getUserPhone() != null) {
+            unprojected.put(event.getOrderId(), event.getUserPhone());
+        }
+        try {
+            projector.execute(() -> apply(event));
+        } catch (RejectedExecutionException e) {
+            markStale(event.getOrderId());
+        }
+    }
+
+    /**
+     * 启动后为还没有读模型的订单补建视图
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            projector.execute(this::backfillMissing);
+        } catch (RejectedExecutionException e) {
+            System.err.println("订单读模型补建任务提交失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public OrderDetailDTO getDetail(Long orderId) {
+        if (orderId == null || stale.contains(orderId)) {
+            return null;
+        }
+        OrderDetailDTO cached = recent.get(orderId);
+        if (cached != null) {
+            return cached;
+        }
+        OrderView view = orderViewMapper.findById(orderId).orElse(null);
+        if (view == null) {
+            return null;
+        }
+        OrderDetailDTO detail = toDetail(view);
+        cache(detail);
+        return detail;
+    }
+
+    @Override
+    public List<Long> unprojectedOrderIds(String userPhone) {
+        List<Long> orderIds = new ArrayList<>();
+        unprojected.forEach((orderId, phone) -> {
+            if (phone.equals(userPhone)) {
+                orderIds.add(orderId);
+            }
+        });
+        return orderIds;
+    }
+
+    @Override
+    public boolean isStale(Long orderId) {
+        return orderId != null && stale.contains(orderId);
+    }
+
+    @Override
+    public List<OrderView> getByUserPhone(String userPhone) {
+        return orderViewMapper.findAllByUserPhoneOrderByCreatedAtDesc(userPhone);
+    }
+
+    /**
+     * 定时重建过期的读模型
+     */
+    @Scheduled(fixedDelayString = "${order.view.repair-interval-ms:10000}")
+    public void repairStale() {
+        for (Long orderId : stale) {
+            try {
+                projector.execute(() -> {
+                    try {
+                        rebuild(orderId);
+                        stale.remove(orderId);
+                    } catch (Exception e) {
+                        System.err.println("重建订单读模型失败: " + orderId + ", " + e.getMessage());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // 投影线程繁忙，下次再试
+                return;
+            }
+        }
+    }
+
+    private void apply(OrderChangedEvent event) {
+        try {
+            if (event.getType() == OrderChangedEvent.Type.CREATED) {
+                projectCreated(event.getOrder(), event.getLines());
+            } else if (orderViewMapper.updateState(event.getOrderId(), event.getState()) == 1) {
+                recent.computeIfPresent(event.getOrderId(), (id, detail) -> withState(detail, event.getState()));
+            } else {
+                markStale(event.getOrderId());
+            }
+        } catch (Exception e) {
+            System.err.println("订单读模型更新失败: " + event.getOrderId() + ", " + e.getMessage());
+            markStale(event.getOrderId());
+        }
+    }
+
+    private void projectCreated(UserOrder order, List<OrderLine> lines) {
+        List<Integer> foodIds = new ArrayList<>(lines.size());
+        for (OrderLine line : lines) {
+            foodIds.add(line.getFoodId());
+        }
+        Map<Integer, Food> foods = new HashMap<>();
+        for (Food food : foodMapper.findAllById(foodIds)) {
+            foods.put(food.getId(), food);
+        }
+        List<OrderLineDTO> lineViews = new ArrayList<>(lines.size());
+        for (OrderLine line : lines) {
+            Food food = foods.get(line.getFoodId());
+            lineViews.add(new OrderLineDTO(line.getFoodId(),
+                    food == null ? null : food.getName(),
+                    food == null ? null : food.getImg(),
+                    line.getQuantity(), line.getUnitPrice(), line.getUnitPrice() * line.getQuantity()));
+        }
+        OrderView view = new OrderView();
+        view.setId(order.getId());
+        view.setUserPhone(order.getUserPhone());
+        view.setBusinessID(order.getBusinessID());
+        view.setBusinessName(businessName(order.getBusinessID()));
+        view.setOrderList(order.getOrderList());
+        view.setPrice(order.getPrice());
+        view.setState(order.getState());
+        view.setCreatedAt(order.getCreatedAt());
+        view.setLines(lineViews);
+        orderViewMapper.save(view);
+        unprojected.remove(order.getId());
+        cache(toDetail(view));
+    }
+
+    /**
+     * 按订单表重建一个订单的读模型
+     */
+    private void rebuild(Long orderId) {
+        List<OrderDetailRow> rows = userOrderMapper.findDetailRows(orderId);
+        recent.remove(orderId);
+        if (rows.isEmpty()) {
+            // 订单已不在热表中（已归档或未提交）
+            unprojected.remove(orderId);
+            return;
+        }
+        OrderDetailRow header = rows.get(0);
+        List<OrderLineDTO> lineViews = new ArrayList<>(rows.size());
+        for (OrderDetailRow row : rows) {
+            if (row.getFoodId() != null) {
+                lineViews.add(new OrderLineDTO(row.getFoodId(), row.getFoodName(), row.getImg(),
+                        row.getQuantity(), row.getUnitPrice(), row.getUnitPrice() * row.getQuantity()));
+            }
+        }
+        OrderView view = new OrderView();
+        view.setId(header.getId());
+        view.setUserPhone(header.getUserPhone());
+        view.setBusinessID(header.getBusinessID());
+        view.setBusinessName(businessName(header.getBusinessID()));
+        view.setOrderList(header.getOrderList());
+        view.setPrice(header.getPrice());
+        view.setState(header.getState());
+        view.setCreatedAt(header.getCreatedAt());
+        view.setLines(lineViews);
+        orderViewMapper.save(view);
+        unprojected.remove(orderId);
+    }
+
+    private void backfillMissing() {
+        try {
+            int total = 0;
+            List<Long> missing;
+            do {
+                missing = orderViewMapper.findUnprojectedOrderIds(PageRequest.of(0, BACKFILL_BATCH));
+                for (Long orderId : missing) {
+                    rebuild(orderId);
+                }
+                total += missing.size();
+            } while (missing.size() == BACKFILL_BATCH);
+            if (total > 0) {
+                System.out.println("订单读模型补建完成, 共 " + total + " 条");
+            }
+        } catch (Exception e) {
+            System.err.println("订单读模型补建失败: " + e.getMessage());
+        }
+    }
+
+    private String businessName(Integer businessId) {
+        if (businessId == null) {
+            return null;
+        }
+        Business business = businessMapper.findBusinessById(businessId);
+        return business == null ? null : business.getBusinessName();
+    }
+
+    private void markStale(Long orderId) {
+        if (orderId != null) {
+            stale.add(orderId);
+            recent.remove(orderId);
+        }
+    }
+
+    private void cache(OrderDetailDTO detail) {
+        if (recent.put(detail.getId(), detail) == null) {
+            recentIds.add(detail.getId());
+            while (recent.size() > cacheCapacity) {
+                Long oldest = recentIds.poll();
+                if (oldest == null) {
+                    break;
+                }
+                recent.remove(oldest);
+            }
+        }
+    }
+
+    private static OrderDetailDTO toDetail(OrderView view) {
+        OrderDetailDTO detail = new OrderDetailDTO();
+        detail.setId(view.getId());
+        detail.setBusinessID(view.getBusinessID());
+        detail.setBusinessName(view.getBusinessName());
+        detail.setUserPhone(view.getUserPhone());
+        detail.setOrderList(view.getOrderList());
+        detail.setPrice(view.getPrice());
+        detail.setState(view.getState());
+        detail.setCreatedAt(view.getCreatedAt());
+        detail.setLines(view.getLines());
+        return detail;
+    }
+
+    // 缓存中的对象可能正被读取，状态变更时替换为新对象
+    private static OrderDetailDTO withState(OrderDetailDTO detail, Integer state) {
+        OrderDetailDTO copy = new OrderDetailDTO();
+        copy.setId(detail.getId());
+        copy.setBusinessID(detail.getBusinessID());
+        copy.setBusinessName(detail.getBusinessName());
+        copy.setUserPhone(detail.getUserPhone());
+        copy.setOrderList(detail.getOrderList());
+        copy.setPrice(detail.getPrice());
+        copy.setState(state);
+        copy.setCreatedAt(detail.getCreatedAt());
+        copy.setLines(detail.getLines());
+        return copy;
+    }
+}
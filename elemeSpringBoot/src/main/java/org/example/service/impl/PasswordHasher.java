@@ -0,0 +1,131 @@
+package org.example.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 密码哈希（BCrypt）
+ * 哈希计算是纯 CPU 开销，放在与 CPU 核数相同的独立线程池中执行，队列有界；
+ * 队列已满或等待超时直接抛出 RejectedExecutionException，由接口返回 503，不会占满 Tomcat 工作线程
+ */
+@Component
+public class PasswordHasher {
+
+    //BCrypt 工作因子，由 PasswordHashingBenchmark 按登录 p99 预算确定
+    @Value("${user.password.bcrypt-strength:10}")
+    private int strength;
+    //等待队列容量
+    @Value("${user.password.queue-capacity:64}")
+    private int queueCapacity;
+    //单次哈希最长等待时间（毫秒），含排队时间
+    @Value("${user.password.timeout-ms:2000}")
+    private long timeoutMillis;
+
+    private BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+    // 用户不存在时用于校验的固定哈希，使响应时间与用户存在时一致
+    private String dummyHash;
+
+    @PostConstruct
+    public void start() {
+        encoder = new BCryptPasswordEncoder(strength);
+        dummyHash = encoder.encode(UUID.randomUUID().toString());
+        int threads = Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 计算密码哈希
+     */
+    public String hash(String rawPassword) {
+        return await(executor.submit(() -> encoder.encode(rawPassword)));
+    }
+
+    /**
+     * 校验密码，兼容尚未迁移的明文密码
+     */
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (!isHashed(storedPassword)) {
+            // 旧数据为明文，常量时间比较
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        return Boolean.TRUE.equals(await(executor.submit(() -> encoder.matches(rawPassword, storedPassword))));
+    }
+
+    /**
+     * 用户不存在时按固定哈希做一次校验并丢弃结果，避免通过响应时间判断手机号是否已注册
+     */
+    public void matchesDummy(String rawPassword) {
+        matches(rawPassword, dummyHash);
+    }
+
+    /**
+     * 存储的密码是否需要（重新）哈希：明文或工作因子低于当前配置
+     */
+    public boolean needsRehash(String storedPassword) {
+        return storedPassword != null && (!isHashed(storedPassword) || encoder.upgradeEncoding(storedPassword));
+    }
+
+    /**
+     * 后台重新哈希，不等待结果；线程池繁忙时放弃，下次登录再迁移
+     */
+    public boolean rehashAsync(String rawPassword, Consumer<String> onHashed) {
+        try {
+            executor.execute(() -> onHashed.accept(encoder.encode(rawPassword)));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private static boolean isHashed(String storedPassword) {
+        return storedPassword.startsWith("$2a$") || storedPassword.startsWith("$2b$")
+                || storedPassword.startsWith("$2y$");
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new RejectedExecutionException("密码哈希等待超时");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new RejectedExecutionException("密码哈希被中断");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("密码哈希失败", e.getCause());
+        }
+    }
+}
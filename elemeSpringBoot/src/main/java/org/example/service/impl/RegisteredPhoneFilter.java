@@ -0,0 +1,151 @@
+package org.example.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.example.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * 已注册手机号的布隆过滤器
+ * 注册时先问过滤器，只有“可能存在”才查询数据库，刷注册接口的请求不会逐个打到 user 表；
+ * 启动时先加载本地快照立即可用，再在后台用只进游标流式扫描 user 表补齐（其他实例注册的号码），
+ * 扫描完成和停机时写回快照。过滤器就绪前一律视为可能存在，走原来的数据库检查
+ */
+@Component
+public class RegisteredPhoneFilter {
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    //预计用户数，超出后误判率逐渐升高（只会多查数据库，不会误放行）
+    @Value("${user.phone-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+    //期望误判率
+    @Value("${user.phone-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    //快照文件路径，为空表示不持久化
+    @Value("${user.phone-filter.snapshot-path:}")
+    private String snapshotPath;
+    //流式扫描的 fetchSize，MySQL 下 Integer.MIN_VALUE 为逐行流式读取
+    @Value("${user.phone-filter.fetch-size:-2147483648}")
+    private int fetchSize;
+
+    private BloomFilter filter;
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (loadSnapshot()) {
+            ready = true;
+        }
+        Thread loader = new Thread(this::scan, "phone-filter-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * 手机号是否可能已注册；返回 false 时一定未注册
+     */
+    public boolean mightExist(String phoneNumber) {
+        return !ready || filter.mightContain(phoneNumber);
+    }
+
+    /**
+     * 注册成功后登记手机号
+     */
+    public void add(String phoneNumber) {
+        filter.put(phoneNumber);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ready) {
+            saveSnapshot();
+        }
+    }
+
+    private void scan() {
+        long started = System.currentTimeMillis();
+        long[] count = {0};
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement("select phone_number from user",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                filter.put(rs.getString(1));
+                count[0]++;
+            });
+            ready = true;
+            System.out.println("手机号过滤器加载完成，共 " + count[0] + " 个，耗时 "
+                    + (System.currentTimeMillis() - started) + "ms");
+            saveSnapshot();
+        } catch (Exception e) {
+            System.err.println("手机号过滤器扫描失败" + (ready ? "，继续使用快照" : "，注册检查回退到数据库")
+                    + ": " + e.getMessage());
+        }
+    }
+
+    private boolean loadSnapshot() {
+        if (snapshotPath == null || snapshotPath.isBlank()) {
+            return false;
+        }
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            BloomFilter loaded = BloomFilter.readFrom(in);
+            if (!filter.sameShape(loaded)) {
+                System.err.println("手机号过滤器快照参数与配置不一致，已忽略: " + path);
+                return false;
+            }
+            filter.merge(loaded);
+            return true;
+        } catch (IOException e) {
+            System.err.println("读取手机号过滤器快照失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void saveSnapshot() {
+        if (snapshotPath == null || snapshotPath.isBlank()) {
+            return;
+        }
+        Path path = Paths.get(snapshotPath).toAbsolutePath();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                filter.writeTo(out);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("写入手机号过滤器快照失败: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.example.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import org.example.dto.OrderEventMessage;
+import org.example.dto.SalesBucketDTO;
+import org.example.entity.OrderState;
+import org.example.service.ISalesStatsService;
+import org.example.util.OrderPricer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 商家销售实时汇总
+ * 消费发件箱投递的下单、支付事件（每个事件只由认领它的一个实例处理），按商家、小时把增量累加到计数数组中。
+ * 进程内投递时监听器运行在发件箱中继认领这一批事件的事务里，整批事件的增量在事务提交前一次写入 business_sales_hourly，
+ * 与删除发件箱记录同时提交：投递失败重试时不会重复计数，进程崩溃也不会丢失已确认的增量。
+ * 查询只读汇总表，多实例部署时结果一致，统计全程不扫描 user_order
+ */
+@Service
+public class SalesAggregationService implements ISalesStatsService {
+
+    private static final int ORDERS_PLACED = 0;
+    private static final int REVENUE_PLACED = 1;
+    private static final int ORDERS_PAID = 2;
+    private static final int REVENUE_PAID = 3;
+    private static final int METRICS = 4;
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final String ORDER_PAID = OrderOutboxWriter.eventType(OrderState.PAID);
+    // 当前事务中累计的增量在事务资源中的键
+    private static final Object BATCH_KEY = new Object();
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO business_sales_hourly (business_id, hour_start, orders_placed, revenue_placed_cents, " +
+            "orders_paid, revenue_paid_cents, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE orders_placed = orders_placed + VALUES(orders_placed), " +
+            "revenue_placed_cents = revenue_placed_cents + VALUES(revenue_placed_cents), " +
+            "orders_paid = orders_paid + VALUES(orders_paid), " +
+            "revenue_paid_cents = revenue_paid_cents + VALUES(revenue_paid_cents), " +
+            "updated_at = VALUES(updated_at)";
+    private static final String LOAD_SQL =
+            "SELECT hour_start, orders_placed, revenue_placed_cents, orders_paid, revenue_paid_cents " +
+            "FROM business_sales_hourly WHERE business_id = ? AND hour_start >= ?";
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+    @Resource
+    private ObjectMapper objectMapper;
+
+    //查询最多返回的小时数
+    @Value("${sales.window-hours:48}")
+    private int windowHours;
+
+    /**
+     * 发件箱事件：下单计入下单数和金额，支付计入支付数和金额，按事件发生的小时分桶
+     */
+    @EventListener
+    public void onOrderEvent(OrderEventMessage message) {
+        boolean created = OrderOutboxWriter.ORDER_CREATED.equals(message.getEventType());
+        if (!created && !ORDER_PAID.equals(message.getEventType())) {
+            return;
+        }
+        JsonNode payload;
+        try {
+            payload = objectMapper.readTree(message.getPayload());
+        } catch (Exception e) {
+            System.err.println("订单事件解析失败: " + message.getId() + ", " + e.getMessage());
+            return;
+        }
+        JsonNode businessId = payload.get("businessID");
+        if (businessId == null || !businessId.canConvertToInt()) {
+            return;
+        }
+        JsonNode price = payload.get("price");
+        long cents = price == null || price.isNull() ? 0 : OrderPricer.toCents(price.asDouble());
+        long hour = toEpochMillis(message.getCreatedAt()) / HOUR_MILLIS;
+        Map<Integer, Map<Long, long[]>> batch = currentBatch();
+        boolean standalone = batch == null;
+        if (standalone) {
+            batch = new HashMap<>();
+        }
+        long[] bucket = batch.computeIfAbsent(businessId.asInt(), id -> new HashMap<>())
+                .computeIfAbsent(hour, h -> new long[METRICS]);
+        if (created) {
+            bucket[ORDERS_PLACED]++;
+            bucket[REVENUE_PLACED] += cents;
+        } else {
+            bucket[ORDERS_PAID]++;
+            bucket[REVENUE_PAID] += cents;
+        }
+        if (standalone) {
+            // 不在事务中投递时逐个写入
+            write(batch);
+        }
+    }
+
+    @Override
+    public List<SalesBucketDTO> getHourlySales(Integer businessId, int hours) {
+        int count = Math.max(1, Math.min(hours, windowHours));
+        long currentHour = System.currentTimeMillis() / HOUR_MILLIS;
+        long firstHour = currentHour - count + 1;
+        long[][] totals = new long[count][METRICS];
+        try {
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                int index = (int) (rs.getTimestamp("hour_start").getTime() / HOUR_MILLIS - firstHour);
+                if (index >= 0 && index < count) {
+                    totals[index][ORDERS_PLACED] += rs.getLong("orders_placed");
+                    totals[index][REVENUE_PLACED] += rs.getLong("revenue_placed_cents");
+                    totals[index][ORDERS_PAID] += rs.getLong("orders_paid");
+                    totals[index][REVENUE_PAID] += rs.getLong("revenue_paid_cents");
+                }
+            }, businessId, Timestamp.valueOf(hourStart(firstHour)));
+        } catch (Exception e) {
+            System.err.println("读取商家销售汇总失败: " + e.getMessage());
+        }
+        List<SalesBucketDTO> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long[] bucket = totals[i];
+            result.add(new SalesBucketDTO(hourStart(firstHour + i), bucket[ORDERS_PLACED],
+                    bucket[REVENUE_PLACED] / 100.0, bucket[ORDERS_PAID], bucket[REVENUE_PAID] / 100.0));
+        }
+        return result;
+    }
+
+    /**
+     * 当前事务中累计的增量，第一次访问时注册提交前写入；没有事务时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Integer, Map<Long, long[]>> currentBatch() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<Integer, Map<Long, long[]>> batch =
+                (Map<Integer, Map<Long, long[]>>) TransactionSynchronizationManager.getResource(BATCH_KEY);
+        if (batch == null) {
+            Map<Integer, Map<Long, long[]>> created = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(BATCH_KEY, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // 写入失败时整个事务回滚，发件箱事件留待重试
+                    write(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BATCH_KEY);
+                }
+            });
+            batch = created;
+        }
+        return batch;
+    }
+
+    // 每个商家、每小时一行，累加写入汇总表
+    private void write(Map<Integer, Map<Long, long[]>> batch) {
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        batch.forEach((businessId, buckets) -> buckets.forEach((hour, delta) ->
+                rows.add(new Object[]{businessId, Timestamp.valueOf(hourStart(hour)),
+                        delta[ORDERS_PLACED], delta[REVENUE_PLACED], delta[ORDERS_PAID], delta[REVENUE_PAID], now})));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time == null ? System.currentTimeMillis() : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime hourStart(long hour) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(hour * HOUR_MILLIS), ZoneId.systemDefault());
+    }
+}
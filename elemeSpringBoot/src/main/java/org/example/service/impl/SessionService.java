@@ -0,0 +1,237 @@
+package org.example.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.dto.UserProfile;
+import org.example.service.ISessionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 登录会话存储
+ * 令牌到用户资料的映射保存在 ConcurrentHashMap 中，每次访问顺延过期时间；
+ * 总数用原子计数控制上限，满了以后按创建顺序近似淘汰（最近访问过的会话多给一次机会），
+ * 登录请求只看队头的少量会话，不遍历整个表；过期会话和队列中的失效令牌由定时清理。
+ * 配置了快照文件时，停机写出紧凑的二进制快照，启动时加载未过期的会话，重启后用户无需重新登录
+ */
+@Service
+public class SessionService implements ISessionService {
+
+    // 快照文件头 "SESS" 与格式版本
+    private static final int SNAPSHOT_MAGIC = 0x53455353;
+    private static final int SNAPSHOT_VERSION = 1;
+    // 每次淘汰最多查看的队头会话数
+    private static final int EVICT_PROBES = 16;
+
+    //会话空闲过期时间
+    @Value("${user.session.ttl-ms:1800000}")
+    long ttlMillis;
+    //最大会话数，满了按创建顺序近似淘汰
+    @Value("${user.session.max-sessions:100000}")
+    int maxSessions;
+    //快照文件路径，为空表示不持久化
+    @Value("${user.session.snapshot-path:}")
+    String snapshotPath;
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    // 按创建顺序排列的令牌，可能含已删除的令牌
+    private final ConcurrentLinkedQueue<String> order = new ConcurrentLinkedQueue<>();
+    // 会话数，先占位再写入，并发登录也不会超出上限
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public String create(UserProfile profile) {
+        long now = System.currentTimeMillis();
+        if (count.incrementAndGet() > maxSessions) {
+            while (count.get() > maxSessions && evictOne(now)) {
+                // 每次至少从队头取走一个令牌
+            }
+        }
+        String token = UUID.randomUUID().toString();
+        sessions.put(token, new Session(profile, now + ttlMillis));
+        order.add(token);
+        return token;
+    }
+
+    @Override
+    public UserProfile resolve(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (session.expiresAt <= now) {
+            remove(token, session);
+            return null;
+        }
+        session.expiresAt = now + ttlMillis;
+        return session.profile;
+    }
+
+    @Override
+    public void invalidate(String token) {
+        if (token != null && sessions.remove(token) != null) {
+            count.decrementAndGet();
+        }
+    }
+
+    /**
+     * 定期清理过期会话和队列中已失效的令牌
+     */
+    @Scheduled(fixedDelayString = "${user.session.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        sessions.forEach((token, session) -> {
+            if (session.expiresAt <= now) {
+                remove(token, session);
+            }
+        });
+        order.removeIf(token -> !sessions.containsKey(token));
+    }
+
+    @PostConstruct
+    public void loadSnapshot() {
+        if (snapshotPath == null || snapshotPath.isBlank()) {
+            return;
+        }
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                System.err.println("会话快照格式不匹配，已忽略: " + path);
+                return;
+            }
+            int total = in.readInt();
+            for (int i = 0; i < total; i++) {
+                String token = in.readUTF();
+                long expiresAt = in.readLong();
+                UserProfile profile = new UserProfile(in.readUTF(), readNullable(in), readNullable(in), readNullable(in));
+                if (expiresAt > now && count.get() < maxSessions
+                        && sessions.putIfAbsent(token, new Session(profile, expiresAt)) == null) {
+                    order.add(token);
+                    count.incrementAndGet();
+                    loaded++;
+                }
+            }
+            System.out.println("已从快照恢复会话 " + loaded + " 个");
+        } catch (IOException e) {
+            System.err.println("读取会话快照失败: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void saveSnapshot() {
+        if (snapshotPath == null || snapshotPath.isBlank()) {
+            return;
+        }
+        Path path = Paths.get(snapshotPath).toAbsolutePath();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        long now = System.currentTimeMillis();
+        try {
+            Files.createDirectories(path.getParent());
+            // 先写临时文件再整体替换，避免停机中断留下半个快照
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                Map<String, Session> live = new HashMap<>();
+                sessions.forEach((token, session) -> {
+                    if (session.expiresAt > now) {
+                        live.put(token, session);
+                    }
+                });
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(live.size());
+                for (Map.Entry<String, Session> entry : live.entrySet()) {
+                    UserProfile profile = entry.getValue().profile;
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue().expiresAt);
+                    out.writeUTF(profile.getPhoneNumber());
+                    writeNullable(out, profile.getName());
+                    writeNullable(out, profile.getEmail());
+                    writeNullable(out, profile.getGender());
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("写入会话快照失败: " + e.getMessage());
+        }
+    }
+
+    private boolean remove(String token, Session session) {
+        if (sessions.remove(token, session)) {
+            count.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 从队头淘汰一个会话：跳过已删除的令牌，最近半个有效期内访问过的移到队尾，
+     * 查看次数用完时淘汰当前队头。队列为空时返回 false
+     */
+    private boolean evictOne(long now) {
+        long recentlyUsed = now + ttlMillis / 2;
+        for (int probes = 1; probes <= EVICT_PROBES; probes++) {
+            String token = order.poll();
+            if (token == null) {
+                return false;
+            }
+            Session session = sessions.get(token);
+            if (session == null) {
+                continue;
+            }
+            if (session.expiresAt > recentlyUsed && probes < EVICT_PROBES) {
+                order.add(token);
+                continue;
+            }
+            if (remove(token, session)) {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static final class Session {
+        final UserProfile profile;
+        volatile long expiresAt;
+
+        Session(UserProfile profile, long expiresAt) {
+            this.profile = profile;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -2,96 +2,471 @@ package org.example.service.impl;
 
 import jakarta.annotation.Resource;
 import org.example.dto.OrderDetailDTO;
+import org.example.dto.OrderDetailRow;
+import org.example.dto.OrderHistoryPage;
+import org.example.dto.OrderHistoryQuery;
+import org.example.dto.OrderLineDTO;
 import org.example.dto.OrderRequestDTO;
+import org.example.dto.OrderSummaryDTO;
+import org.example.dto.PriceQuote;
+import org.example.dto.StockReservation;
 import org.example.entity.Business;
 import org.example.entity.Food;
+import org.example.entity.OrderLine;
+import org.example.entity.OrderState;
 import org.example.entity.User;
+import org.example.entity.OrderView;
 import org.example.entity.UserOrder;
+import org.example.entity.UserOrderArchive;
+import org.example.event.OrderChangedEvent;
 import org.example.mapper.IBusinessMapper;
 import org.example.mapper.IFoodMapper;
+import org.example.mapper.IUserOrderArchiveMapper;
 import org.example.mapper.IUserOrderMapper;
+import org.example.service.IIdempotencyService;
+import org.example.service.IInventoryService;
+import org.example.service.IOrderViewService;
 import org.example.service.IUserOrderService;
+import org.example.util.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Service
 public class UserOrderService implements IUserOrderService {
+    //历史订单默认/最大每页条数
+    private static final int DEFAULT_HISTORY_SIZE = 20;
+    private static final int MAX_HISTORY_SIZE = 100;
     //资源
     @Resource
     IUserOrderMapper userOrderMapper;
     @Resource
+    IUserOrderArchiveMapper userOrderArchiveMapper;
+    @Resource
     IBusinessMapper businessMapper;
     @Resource
     IFoodMapper foodMapper;
+    @Resource
+    IInventoryService inventoryService;
+    @Resource
+    SnowflakeIdGenerator orderIdGenerator;
+    @Resource
+    OrderIngestionPipeline orderIngestionPipeline;
+    @Resource
+    IIdempotencyService idempotencyService;
+    @Resource
+    OrderPricingEngine orderPricingEngine;
+    @Resource
+    IOrderViewService orderViewService;
+    @Resource
+    ApplicationEventPublisher eventPublisher;
+    @Resource
+    OrderOutboxWriter orderOutboxWriter;
+    @Resource
+    TransactionTemplate transactionTemplate;
+    //等待批量写入完成的最长时间
+    @Value("${order.ingest.submit-timeout-ms:3000}")
+    long submitTimeoutMillis;
     @Override
-    public UserOrder getById(Integer Id) {
-        return userOrderMapper.findById(Id).orElse(null);
+    public UserOrder getById(Long Id) {
+        UserOrder userOrder = userOrderMapper.findById(Id).orElse(null);
+        if (userOrder != null) {
+            return userOrder;
+        }
+        //热表中没有时查归档表
+        UserOrderArchive archived = userOrderArchiveMapper.findById(Id).orElse(null);
+        if (archived == null) {
+            return null;
+        }
+        userOrder = new UserOrder();
+        userOrder.setID(archived.getID());
+        userOrder.setBusinessID(archived.getBusinessID());
+        userOrder.setUserPhone(archived.getUserPhone());
+        userOrder.setOrderList(archived.getOrderList());
+        userOrder.setPrice(archived.getPrice());
+        userOrder.setState(archived.getState());
+        userOrder.setCreatedAt(archived.getCreatedAt());
+        userOrder.setNewOrder(false);
+        return userOrder;
     }
 
     @Override
-    public Integer addUserOrder(OrderRequestDTO orderRequestDTO) {
-        //当前时间
-        LocalDateTime currentTime = LocalDateTime.now();
+    public Long addUserOrder(OrderRequestDTO orderRequestDTO) {
+        return createOrder(orderRequestDTO, null);
+    }
+
+    @Override
+    public Long addUserOrder(OrderRequestDTO orderRequestDTO, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isEmpty()) {
+            return createOrder(orderRequestDTO, null);
+        }
+        //幂等键按用户隔离
+        String key = idempotencyKeyOf(orderRequestDTO.getUserPhone(), idempotencyKey);
+        CompletableFuture<Long> previous = idempotencyService.begin(key);
+        if (previous != null) {
+            //重放请求直接返回原订单ID，不访问订单表
+            return awaitPrevious(previous);
+        }
+        Long orderId = null;
+        try {
+            orderId = createOrder(orderRequestDTO, key);
+            return orderId;
+        } finally {
+            idempotencyService.finish(key, orderId);
+        }
+    }
+
+    /**
+     * 手机号 + ":" + 客户端幂等键的 SHA-256 十六进制串，定长 64 位，客户端传入多长都不会超出列宽
+     */
+    static String idempotencyKeyOf(String userPhone, String idempotencyKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((userPhone + ":" + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Long awaitPrevious(CompletableFuture<Long> previous) {
+        try {
+            return previous.get(submitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RejectedExecutionException("原请求仍在处理中", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("原请求处理失败", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("等待原请求被中断", e);
+        }
+    }
+
+    private Long createOrder(OrderRequestDTO orderRequestDTO, String idempotencyKey) {
         Integer businessID = orderRequestDTO.getBusinessID();
         String userPhone = orderRequestDTO.getUserPhone();
         List<Integer> orderList = orderRequestDTO.getOrderList();
-        Double price = orderRequestDTO.getPrice();
+        //按缓存中的商品现价计算应付金额，商品不存在、已下架或不属于该商家时拒绝
+        PriceQuote quote = orderPricingEngine.quote(businessID, orderList);
+        if (quote == null) {
+            return -2L;
+        }
+        //客户端提交的金额与服务端不一致
+        if (!orderPricingEngine.matches(quote, orderRequestDTO.getPrice())) {
+            return -3L;
+        }
         String orders = orderList.stream().map(String::valueOf).collect(Collectors.joining("-"));
         UserOrder userOrder = new UserOrder();
+        //保存前分配订单ID，不依赖数据库自增
+        userOrder.setID(orderIdGenerator.nextId());
         userOrder.setUserPhone(userPhone);
         userOrder.setBusinessID(businessID);
         userOrder.setOrderList(orders);
-        userOrder.setPrice(price);
-        userOrder.setState(0);  // 设置初始状态为未支付
-        //保存到数据库
-        UserOrder savedUserOrder = userOrderMapper.save(userOrder);
-        //获取其订单ID
-        return savedUserOrder.getID();
+        userOrder.setPrice(quote.getTotalCents() / 100.0);
+        userOrder.setState(OrderState.UNPAID.getCode());  // 设置初始状态为未支付
+        userOrder.setCreatedAt(LocalDateTime.now());
+        //生成订单明细，单价取下单时的商品价格
+        List<OrderLine> lines = buildOrderLines(userOrder.getId(), quote);
+        //预占库存，不足时拒绝下单
+        StockReservation reservation = inventoryService.reserve(orderList);
+        if (reservation == null) {
+            return -1L;
+        }
+        //交给写入流水线批量保存，等待所在批次提交
+        CompletableFuture<Long> saved = orderIngestionPipeline.submit(userOrder, lines, idempotencyKey);
+        if (idempotencyKey != null) {
+            //超时返回后批次仍可能提交，幂等键保持处理中直到写入结果确定，重试不会生成第二个订单
+            idempotencyService.attach(idempotencyKey, saved);
+        }
+        try {
+            Long orderId = saved.get(submitTimeoutMillis, TimeUnit.MILLISECONDS);
+            inventoryService.bind(orderId, reservation);
+            //读模型等订阅方异步处理，不阻塞下单
+            eventPublisher.publishEvent(OrderChangedEvent.created(userOrder, lines));
+            return orderId;
+        } catch (TimeoutException e) {
+            // 订单仍可能随后提交，预占照常绑定，未支付时由超时机制释放
+            inventoryService.bind(userOrder.getId(), reservation);
+            publishWhenSettled(saved, userOrder, lines);
+            throw new RejectedExecutionException("订单写入超时", e);
+        } catch (ExecutionException e) {
+            inventoryService.cancel(reservation);
+            if (idempotencyKey != null && e.getCause() instanceof DuplicateKeyException) {
+                //同一个键已经提交过订单，返回该订单
+                Long committed = idempotencyService.findCommitted(idempotencyKey);
+                if (committed != null) {
+                    return committed;
+                }
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("订单写入失败", e.getCause());
+        } catch (InterruptedException e) {
+            inventoryService.bind(userOrder.getId(), reservation);
+            publishWhenSettled(saved, userOrder, lines);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("订单写入被中断", e);
+        }
+    }
+
+    /**
+     * 等待超时的订单在批次提交后补发创建事件，读模型等订阅方不会漏掉它；
+     * 写入最终失败时立即归还预占，不必等超时
+     */
+    private void publishWhenSettled(CompletableFuture<Long> saved, UserOrder userOrder, List<OrderLine> lines) {
+        saved.whenComplete((orderId, error) -> {
+            if (error == null) {
+                eventPublisher.publishEvent(OrderChangedEvent.created(userOrder, lines));
+            } else {
+                inventoryService.release(userOrder.getId());
+            }
+        });
     }
 
     @Override
-    public Boolean havePayed(Integer ID) {
-        Optional<UserOrder> orderOptional = userOrderMapper.findById(ID);
-        if(orderOptional.isPresent()){
-            UserOrder userOrder = orderOptional.get();
-            userOrder.setState(1);  // 设置状态为已支付
-            userOrderMapper.save(userOrder);
+    public Boolean havePayed(Long ID) {
+        //只有未支付的订单可以支付，已取消或重复支付都不会生效
+        if (!transition(ID, OrderState.UNPAID, OrderState.PAID)) {
+            return false;
+        }
+        //预占的库存转为销量
+        inventoryService.confirm(ID);
+        return true;
+    }
+
+    @Override
+    public Boolean startDelivery(Long ID) {
+        return transition(ID, OrderState.PAID, OrderState.DELIVERING);
+    }
+
+    @Override
+    public Boolean completeOrder(Long ID) {
+        return transition(ID, OrderState.DELIVERING, OrderState.DONE);
+    }
+
+    @Override
+    public Boolean cancelOrder(Long ID) {
+        //只有未支付的订单可以取消；已支付的订单库存已转为销量，没有退款流程前不允许取消
+        if (transition(ID, OrderState.UNPAID, OrderState.CANCELLED)) {
+            //未支付的订单归还预占的库存
+            inventoryService.release(ID);
             return true;
         }
         return false;
     }
 
+    /**
+     * 定时取消预占已超时的未支付订单
+     * 取消生效才归还库存；取消未生效时按订单当前状态处理：已支付则把预占转为销量，
+     * 已取消或订单不存在（写入失败）则归还库存
+     */
+    @Scheduled(fixedDelayString = "${inventory.sweep-interval-ms:10000}")
+    public void cancelExpiredOrders() {
+        for (Long orderId : inventoryService.expiredReservations()) {
+            try {
+                if (transition(orderId, OrderState.UNPAID, OrderState.CANCELLED)) {
+                    inventoryService.release(orderId);
+                    continue;
+                }
+                UserOrder userOrder = userOrderMapper.findOrderByID(orderId);
+                OrderState state = userOrder == null ? null : OrderState.fromCode(userOrder.getState());
+                if (state == OrderState.UNPAID) {
+                    //刚好与其他操作并发，下一轮再处理
+                    continue;
+                }
+                if (state == OrderState.PAID || state == OrderState.DELIVERING || state == OrderState.DONE) {
+                    inventoryService.confirm(orderId);
+                } else {
+                    inventoryService.release(orderId);
+                }
+            } catch (Exception e) {
+                System.err.println("取消超时订单失败: " + orderId + ", " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 单条 UPDATE 完成状态流转，不需要先查询订单；
+     * 流转成功时在同一事务中写入发件箱事件
+     */
+    private boolean transition(Long ID, OrderState from, OrderState to) {
+        if (ID == null) {
+            return false;
+        }
+        Boolean applied = transactionTemplate.execute(status -> {
+            if (userOrderMapper.transition(ID, from.getCode(), to.getCode()) != 1) {
+                return false;
+            }
+            orderOutboxWriter.appendStateChanged(ID, to);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(applied)) {
+            return false;
+        }
+        eventPublisher.publishEvent(OrderChangedEvent.stateChanged(ID, to.getCode()));
+        return true;
+    }
+
     @Override
     public List<UserOrder> getAllByUserPhone(String userPhone) {
-        return userOrderMapper.findAllByUserPhone(userPhone);
+        //从读模型读取全部订单，不联表读取订单表
+        List<OrderView> views = orderViewService.getByUserPhone(userPhone);
+        Map<Long, UserOrder> merged = new LinkedHashMap<>();
+        //读模型异步投影，只有还没投影或投影落后的订单以订单表为准
+        List<Long> lagging = new ArrayList<>(orderViewService.unprojectedOrderIds(userPhone));
+        for (OrderView view : views) {
+            if (orderViewService.isStale(view.getId())) {
+                lagging.add(view.getId());
+            }
+            UserOrder userOrder = new UserOrder();
+            userOrder.setID(view.getId());
+            userOrder.setBusinessID(view.getBusinessID());
+            userOrder.setUserPhone(view.getUserPhone());
+            userOrder.setOrderList(view.getOrderList());
+            userOrder.setPrice(view.getPrice());
+            userOrder.setState(view.getState());
+            userOrder.setCreatedAt(view.getCreatedAt());
+            userOrder.setNewOrder(false);
+            merged.put(userOrder.getId(), userOrder);
+        }
+        if (!lagging.isEmpty()) {
+            for (UserOrder userOrder : userOrderMapper.findAllById(lagging)) {
+                merged.put(userOrder.getId(), userOrder);
+            }
+        }
+        List<UserOrder> userOrders = new ArrayList<>(merged.values());
+        userOrders.sort(Comparator.comparing(UserOrder::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(UserOrder::getId, Comparator.reverseOrder()));
+        return userOrders;
     }
 
     @Override
-    public OrderDetailDTO getOrderDetail(Integer ID) {
+    public OrderHistoryPage getOrderHistory(OrderHistoryQuery query) {
+        int size = query.getSize() == null ? DEFAULT_HISTORY_SIZE
+                : Math.max(1, Math.min(query.getSize(), MAX_HISTORY_SIZE));
+        LocalDateTime cursorTime = null;
+        Long cursorId = null;
+        String cursor = query.getCursor();
+        if (cursor != null && !cursor.isEmpty()) {
+            //游标格式：下单时间_订单ID
+            int split = cursor.lastIndexOf('_');
+            if (split <= 0) {
+                return null;
+            }
+            try {
+                cursorTime = LocalDateTime.parse(cursor.substring(0, split));
+                cursorId = Long.parseLong(cursor.substring(split + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                return null;
+            }
+        }
+        LocalDateTime startTime = query.getFrom() == null ? null : query.getFrom().atStartOfDay();
+        LocalDateTime endTime = query.getTo() == null ? null : query.getTo().plusDays(1).atStartOfDay();
+
+        //多取一条用于判断是否还有下一页
+        List<OrderSummaryDTO> rows = userOrderMapper.findHistory(query.getUserPhone(), query.getState(),
+                startTime, endTime, cursorTime, cursorId, PageRequest.of(0, size + 1));
+        //热表不够一页时从归档表继续取，归档订单都早于热表中的订单，拼接后仍按时间倒序
+        if (rows.size() <= size) {
+            List<OrderSummaryDTO> archived = userOrderArchiveMapper.findHistory(query.getUserPhone(), query.getState(),
+                    startTime, endTime, cursorTime, cursorId, PageRequest.of(0, size + 1 - rows.size()));
+            if (!archived.isEmpty()) {
+                rows = new ArrayList<>(rows);
+                rows.addAll(archived);
+            }
+        }
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = new ArrayList<>(rows.subList(0, size));
+            OrderSummaryDTO last = rows.get(size - 1);
+            nextCursor = last.getCreatedAt() + "_" + last.getId();
+        }
+        return new OrderHistoryPage(rows, nextCursor);
+    }
+
+    @Override
+    public OrderDetailDTO getOrderDetail(Long ID) {
         if (ID == null) {
             return null;
         }
-        Optional<UserOrder> orderOptional = userOrderMapper.findById(ID);
-        if(orderOptional.isEmpty()) {
+        //优先从读模型（最近订单缓存或 order_view）读取
+        OrderDetailDTO view = orderViewService.getDetail(ID);
+        if (view != null) {
+            return view;
+        }
+        //读模型尚未就绪时回退到订单表：订单头和明细一次联表查出
+        List<OrderDetailRow> rows = userOrderMapper.findDetailRows(ID);
+        if(rows.isEmpty()) {
+            //已归档的订单
+            rows = userOrderArchiveMapper.findDetailRows(ID);
+        }
+        if(rows.isEmpty()) {
             return null;
         }
-        UserOrder userOrder = orderOptional.get();
-        
+        OrderDetailRow header = rows.get(0);
+
         OrderDetailDTO orderDetailDTO = new OrderDetailDTO();
-        orderDetailDTO.setId(userOrder.getID());
-        orderDetailDTO.setBusinessID(userOrder.getBusinessID());
-        orderDetailDTO.setUserPhone(userOrder.getUserPhone());
-        orderDetailDTO.setOrderList(userOrder.getOrderList());
-        orderDetailDTO.setPrice(userOrder.getPrice());
-        orderDetailDTO.setState(userOrder.getState());
-        orderDetailDTO.setCreatedAt(userOrder.getCreatedAt());
+        orderDetailDTO.setId(header.getId());
+        orderDetailDTO.setBusinessID(header.getBusinessID());
+        orderDetailDTO.setUserPhone(header.getUserPhone());
+        orderDetailDTO.setOrderList(header.getOrderList());
+        orderDetailDTO.setPrice(header.getPrice());
+        orderDetailDTO.setState(header.getState());
+        orderDetailDTO.setCreatedAt(header.getCreatedAt());
+        List<OrderLineDTO> lines = new ArrayList<>(rows.size());
+        for (OrderDetailRow row : rows) {
+            if (row.getFoodId() != null) {
+                lines.add(new OrderLineDTO(row.getFoodId(), row.getFoodName(), row.getImg(),
+                        row.getQuantity(), row.getUnitPrice(), row.getUnitPrice() * row.getQuantity()));
+            }
+        }
+        orderDetailDTO.setLines(lines);
         return orderDetailDTO;
     }
 
+    /**
+     * 按计价结果生成订单明细，单价取计价时的商品快照
+     */
+    private List<OrderLine> buildOrderLines(Long orderId, PriceQuote quote) {
+        List<OrderLine> lines = new ArrayList<>(quote.getQuantities().size());
+        for (Map.Entry<Integer, Integer> entry : quote.getQuantities().entrySet()) {
+            OrderLine line = new OrderLine();
+            line.setOrderId(orderId);
+            line.setFoodId(entry.getKey());
+            line.setQuantity(entry.getValue());
+            line.setUnitPrice(quote.getFoods().get(entry.getKey()).getPriceCents() / 100.0);
+            lines.add(line);
+        }
+        return lines;
+    }
+
 
 }
@@ -0,0 +1,178 @@
+package org.example.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.example.dto.UserProfile;
+import org.example.entity.User;
+import org.example.mapper.IUserMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户资料缓存（按手机号）
+ * 缓存不含密码的资料快照和锁定状态，未命中时读一次 user 表；注册时直接写入，
+ * 锁定、解锁和失败次数落库时失效。容量有上限，超出后按写入顺序淘汰；
+ * 其他实例的修改在 ttl 后生效。命中与未命中次数记录到 user.profile.cache 指标
+ */
+@Component
+public class UserProfileCache {
+
+    @Resource
+    private IUserMapper userMapper;
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    //缓存容量
+    @Value("${user.profile-cache.capacity:100000}")
+    private int capacity;
+    //缓存有效期
+    @Value("${user.profile-cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // 写入顺序，用于超出容量时淘汰；每条带写入时的序号，失效后重新写入的手机号按新序号排队
+    private final ConcurrentLinkedQueue<Queued> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    public void init() {
+        hits = Counter.builder("user.profile.cache")
+                .description("用户资料缓存访问次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        misses = Counter.builder("user.profile.cache")
+                .description("用户资料缓存访问次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("user.profile.cache.size", entries, ConcurrentHashMap::size)
+                .description("用户资料缓存条数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 读取用户资料，未命中时查询数据库；用户不存在返回 null
+     */
+    public Entry get(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        Entry entry = peek(phoneNumber);
+        if (entry != null) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        User user = userMapper.findByPhoneNumber(phoneNumber);
+        return user == null ? null : put(user);
+    }
+
+    /**
+     * 只查缓存，不访问数据库，也不计入命中率
+     */
+    public Entry peek(String phoneNumber) {
+        Entry entry = entries.get(phoneNumber);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(phoneNumber, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * 用刚从数据库读出或刚写入的用户刷新缓存
+     */
+    public Entry put(User user) {
+        int attempts = user.getLoginAttempts() == null ? 0 : user.getLoginAttempts();
+        return put(UserProfile.of(user), Boolean.TRUE.equals(user.getAccountLocked()), attempts);
+    }
+
+    public Entry put(UserProfile profile, boolean locked, int loginAttempts) {
+        String phoneNumber = profile.getPhoneNumber();
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        long stamp = sequence.incrementAndGet();
+        // 刷新已有条目时沿用原序号，仍按第一次写入的顺序淘汰
+        Entry entry = entries.compute(phoneNumber, (key, current) ->
+                new Entry(profile, locked, loginAttempts, expiresAt, current != null ? current.stamp : stamp));
+        if (entry.stamp == stamp) {
+            order.add(new Queued(phoneNumber, stamp));
+            queued.incrementAndGet();
+            // 失效后重新写入的手机号会在队列中重复出现，队列长度同样限制在容量的两倍以内
+            while (entries.size() > capacity || queued.get() > 2L * capacity) {
+                Queued oldest = order.poll();
+                if (oldest == null) {
+                    break;
+                }
+                queued.decrementAndGet();
+                // 只淘汰序号相同的条目，队列中残留的旧记录不会误删之后重新写入的条目
+                entries.computeIfPresent(oldest.phoneNumber, (key, current) ->
+                        current.stamp == oldest.stamp ? null : current);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * 锁定状态或失败次数变化后失效
+     */
+    public void invalidate(String phoneNumber) {
+        if (phoneNumber != null) {
+            entries.remove(phoneNumber);
+        }
+    }
+
+    /**
+     * 缓存内容：资料快照、锁定状态和加载时的失败次数
+     */
+    public static final class Entry {
+        private final UserProfile profile;
+        private final boolean locked;
+        private final int loginAttempts;
+        private final long expiresAt;
+        // 写入顺序号
+        private final long stamp;
+
+        Entry(UserProfile profile, boolean locked, int loginAttempts, long expiresAt, long stamp) {
+            this.profile = profile;
+            this.locked = locked;
+            this.loginAttempts = loginAttempts;
+            this.expiresAt = expiresAt;
+            this.stamp = stamp;
+        }
+
+        public UserProfile getProfile() {
+            return profile;
+        }
+
+        public boolean isLocked() {
+            return locked;
+        }
+
+        public int getLoginAttempts() {
+            return loginAttempts;
+        }
+    }
+
+    private static final class Queued {
+        final String phoneNumber;
+        final long stamp;
+
+        Queued(String phoneNumber, long stamp) {
+            this.phoneNumber = phoneNumber;
+            this.stamp = stamp;
+        }
+    }
+}
@@ -1,20 +1,30 @@
 package org.example.service.impl;
 
 import jakarta.annotation.Resource;
+import org.example.dto.UserProfile;
 import org.example.entity.User;
 import org.example.mapper.IUserMapper;
 import org.example.service.IUserService;
 import org.example.util.ValidationUtils;
 import org.example.util.ValidationUtils.ValidationResult;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class UserService implements IUserService {
     //资源
     @Resource
     private IUserMapper userMapper;
+    @Resource
+    private PasswordHasher passwordHasher;
+    @Resource
+    private RegisteredPhoneFilter registeredPhoneFilter;
+    @Resource
+    private LoginAttemptTracker loginAttemptTracker;
+    @Resource
+    private UserProfileCache userProfileCache;
     
     /**
      * 用户登录 - 包含复杂的业务逻辑用于白盒测试
@@ -36,33 +46,56 @@ public class UserService implements IUserService {
                 return null;
             }
             
-            // 2. 查询用户
-            User user = userMapper.findByPhoneNumberAndPassword(phoneNumber, password);
+            // 2. 缓存中已锁定的账户直接拒绝，不再查库和计算哈希
+            UserProfileCache.Entry cached = userProfileCache.peek(phoneNumber);
+            if ((cached != null && cached.isLocked()) || loginAttemptTracker.isLocked(phoneNumber)) {
+                System.out.println("账户已被锁定");
+                return null;
+            }
+            
+            // 按手机号查询一次用户（需要密码），密码在哈希线程池中校验
+            User user = userMapper.findByPhoneNumber(phoneNumber);
             if (user == null) {
-                // 增加登录失败次数
-                incrementLoginFailureCount(phoneNumber);
+                // 与密码错误时耗时一致，不暴露手机号是否已注册
+                passwordHasher.matchesDummy(password);
+                return null;
+            }
+            userProfileCache.put(user);
+            if (!passwordHasher.matches(password, user.getPassword())) {
+                // 增加登录失败次数（内存计数，达到上限时锁定）
+                incrementLoginFailureCount(phoneNumber, user.getLoginAttempts());
                 return null;
             }
             
             // 3. 检查账户是否被锁定 - 支持等价类划分测试
-            if (isAccountLocked(user)) {
+            if (isAccountLocked(user) || loginAttemptTracker.isLocked(phoneNumber)) {
                 System.out.println("账户已被锁定");
                 return null;
             }
             
             // 4. 检查登录失败次数 - 支持边界值测试
-            ValidationResult attemptValidation = ValidationUtils.validateLoginAttempts(user.getLoginAttempts());
+            ValidationResult attemptValidation = ValidationUtils.validateLoginAttempts(
+                    loginAttemptTracker.attempts(phoneNumber, user.getLoginAttempts()));
             if (!attemptValidation.isSuccess()) {
                 lockUserAccount(phoneNumber);
                 System.out.println("登录失败次数过多，账户已被锁定");
                 return null;
             }
             
-            // 5. 登录成功，重置失败次数
-            resetLoginFailureCount(phoneNumber);
+            // 5. 登录成功，清除失败记录（有失败记录时才写库）
+            resetLoginFailureCount(phoneNumber, user.getLoginAttempts());
+            user.setLoginAttempts(0);
+            
+            // 6. 明文或旧工作因子的密码在后台重新哈希
+            if (passwordHasher.needsRehash(user.getPassword())) {
+                passwordHasher.rehashAsync(password, hashed -> rehashPassword(phoneNumber, hashed));
+            }
             
             return user;
             
+        } catch (RejectedExecutionException e) {
+            // 哈希线程池已满，交给接口层返回 503
+            throw e;
         } catch (Exception e) {
             System.err.println("登录过程中发生异常: " + e.getMessage());
             return null;
@@ -93,7 +126,10 @@ public class UserService implements IUserService {
             }
             
             // 2. 检查手机号是否已注册 - 支持等价类测试
-            if (userMapper.existsByPhoneNumber(phoneNumber)) {
+            // 布隆过滤器判定一定未注册时不查数据库
+            // 布隆过滤器判定可能存在时先查资料缓存，再查数据库
+            if (registeredPhoneFilter.mightExist(phoneNumber)
+                    && (userProfileCache.peek(phoneNumber) != null || userMapper.existsByPhoneNumber(phoneNumber))) {
                 return 2; // 手机号已注册
             }
             
@@ -124,19 +160,20 @@ public class UserService implements IUserService {
                 return 6; // 用户名格式错误
             }
             
-            // 7. 创建新用户
-            User user = new User();
-            user.setPhoneNumber(phoneNumber);
-            user.setPassword(password);
-            user.setName(name);
-            user.setEmail(email);
-            user.setGender("未知"); // 默认值
-            user.setLoginAttempts(0);
-            user.setAccountLocked(false);
-            
-            userMapper.save(user);
+            // 7. 创建新用户，只保存密码哈希
+            String hashed = passwordHasher.hash(password);
+            userMapper.insertUser(phoneNumber, hashed, name, email, "未知"); // 性别默认值
+            registeredPhoneFilter.add(phoneNumber);
+            userProfileCache.put(new UserProfile(phoneNumber, name, email, "未知"), false, 0);
             return 0; // 注册成功
             
+        } catch (DataIntegrityViolationException e) {
+            // 并发注册或其他实例刚注册了同一手机号，由主键兜底
+            registeredPhoneFilter.add(phoneNumber);
+            return 2;
+        } catch (RejectedExecutionException e) {
+            // 哈希线程池已满，交给接口层返回 503
+            throw e;
         } catch (Exception e) {
             System.err.println("注册过程中发生异常: " + e.getMessage());
             e.printStackTrace();
@@ -144,26 +181,21 @@ public class UserService implements IUserService {
         }
     }
     
+    @Override
+    public UserProfile getProfile(String phoneNumber) {
+        UserProfileCache.Entry entry = userProfileCache.get(phoneNumber);
+        return entry == null ? null : entry.getProfile();
+    }
+    
     /**
      * 增加登录失败次数 - 支持边界值测试
      * 测试点：失败次数0-4次时的处理，第5次失败时的锁定逻辑
+     * 次数在内存中累计并判断锁定，只有锁定时立即写库，其余由 LoginAttemptTracker 定期落库
      */
-    private void incrementLoginFailureCount(String phoneNumber) {
+    private void incrementLoginFailureCount(String phoneNumber, Integer persistedAttempts) {
         try {
-            User user = userMapper.findByPhoneNumber(phoneNumber);
-            if (user != null) {
-                int currentAttempts = user.getLoginAttempts() != null ? user.getLoginAttempts() : 0;
-                int newAttempts = currentAttempts + 1;
-                
-                user.setLoginAttempts(newAttempts);
-                
-                // 边界值检查：如果达到最大失败次数，锁定账户
-                if (newAttempts >= ValidationUtils.MAX_LOGIN_ATTEMPTS) {
-                    user.setAccountLocked(true);
-                    System.out.println("用户账户因登录失败次数过多被锁定");
-                }
-                
-                userMapper.update(user);
+            if (loginAttemptTracker.recordFailure(phoneNumber, persistedAttempts)) {
+                System.out.println("登录失败次数过多，账户已被锁定");
             }
         } catch (Exception e) {
             System.err.println("更新登录失败次数时发生异常: " + e.getMessage());
@@ -171,31 +203,33 @@ public class UserService implements IUserService {
     }
     
     /**
-     * 重置登录失败次数
+     * 保存重新计算的密码哈希
      */
-    private void resetLoginFailureCount(String phoneNumber) {
+    private void rehashPassword(String phoneNumber, String hashed) {
         try {
-            User user = userMapper.findByPhoneNumber(phoneNumber);
-            if (user != null) {
-                user.setLoginAttempts(0);
-                user.setAccountLocked(false);
-                userMapper.update(user);
-            }
+            userMapper.updatePassword(phoneNumber, hashed);
+        } catch (Exception e) {
+            System.err.println("更新密码哈希时发生异常: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 重置登录失败次数（已为 0 且未锁定时不写，写库在后台进行）
+     */
+    private void resetLoginFailureCount(String phoneNumber, Integer persistedAttempts) {
+        try {
+            loginAttemptTracker.recordSuccess(phoneNumber, persistedAttempts);
         } catch (Exception e) {
             System.err.println("重置登录失败次数时发生异常: " + e.getMessage());
         }
     }
     
     /**
-     * 锁定用户账户
+     * 锁定用户账户（内存中立即生效，写库在后台进行）
      */
     private void lockUserAccount(String phoneNumber) {
         try {
-            User user = userMapper.findByPhoneNumber(phoneNumber);
-            if (user != null) {
-                user.setAccountLocked(true);
-                userMapper.update(user);
-            }
+            loginAttemptTracker.lock(phoneNumber);
         } catch (Exception e) {
             System.err.println("锁定用户账户时发生异常: " + e.getMessage());
         }
@@ -249,13 +283,14 @@ public class UserService implements IUserService {
      */
     public String calculateUserCreditLevel(String phoneNumber) {
         try {
-            User user = userMapper.findByPhoneNumber(phoneNumber);
-            if (user == null) {
+            UserProfileCache.Entry entry = userProfileCache.get(phoneNumber);
+            if (entry == null) {
                 return "无信用记录";
             }
             
-            int loginAttempts = user.getLoginAttempts() != null ? user.getLoginAttempts() : 0;
-            boolean isLocked = user.getAccountLocked() != null ? user.getAccountLocked() : false;
+            // 失败次数和锁定状态以内存中的最新记录为准
+            int loginAttempts = loginAttemptTracker.attempts(phoneNumber, entry.getLoginAttempts());
+            boolean isLocked = entry.isLocked() || loginAttemptTracker.isLocked(phoneNumber);
             
             // 复杂的条件判断逻辑 - 支持白盒测试的分支覆盖
             if (isLocked) {
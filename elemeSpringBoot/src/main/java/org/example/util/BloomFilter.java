@@ -0,0 +1,137 @@
+package org.example.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的字符串布隆过滤器
+ * 位数组为 AtomicLongArray，写入用 CAS 置位，读写都不加锁；
+ * mightContain 返回 false 时一定不存在，返回 true 时可能存在（误判率由容量和位数决定）
+ */
+public final class BloomFilter {
+
+    // 文件头 "BLOM" 与格式版本
+    private static final int MAGIC = 0x424C4F4D;
+    private static final int VERSION = 1;
+
+    private final AtomicLongArray words;
+    private final long numBits;
+    private final int numHashes;
+
+    /**
+     * @param expectedInsertions 预计元素个数
+     * @param falsePositiveRate  期望误判率
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max(64, (bits + 63) / 64 * 64);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        this.words = new AtomicLongArray((int) (numBits / 64));
+    }
+
+    private BloomFilter(long numBits, int numHashes, AtomicLongArray words) {
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+        this.words = words;
+    }
+
+    public void put(String value) {
+        long h1 = hash64(value);
+        long h2 = Long.rotateLeft(h1, 32) | 1;
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = words.get(word)) & mask) == 0) {
+                if (words.compareAndSet(word, current, current | mask)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = hash64(value);
+        long h2 = Long.rotateLeft(h1, 32) | 1;
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 与另一个过滤器的参数是否一致（位数和哈希函数个数），参数不同的快照不能复用
+     */
+    public boolean sameShape(BloomFilter other) {
+        return other != null && numBits == other.numBits && numHashes == other.numHashes;
+    }
+
+    /**
+     * 把另一个同参数过滤器的位合并进来
+     */
+    public void merge(BloomFilter other) {
+        if (!sameShape(other)) {
+            throw new IllegalArgumentException("过滤器参数不一致，不能合并");
+        }
+        for (int i = 0; i < words.length(); i++) {
+            long bits = other.words.get(i);
+            if (bits != 0) {
+                words.getAndAccumulate(i, bits, (a, b) -> a | b);
+            }
+        }
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(numBits);
+        out.writeInt(numHashes);
+        for (int i = 0; i < words.length(); i++) {
+            out.writeLong(words.get(i));
+        }
+    }
+
+    public static BloomFilter readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("布隆过滤器文件格式不匹配");
+        }
+        long numBits = in.readLong();
+        int numHashes = in.readInt();
+        if (numBits <= 0 || numBits % 64 != 0 || numBits / 64 > Integer.MAX_VALUE || numHashes <= 0) {
+            throw new IOException("布隆过滤器文件参数错误");
+        }
+        AtomicLongArray words = new AtomicLongArray((int) (numBits / 64));
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, in.readLong());
+        }
+        return new BloomFilter(numBits, numHashes, words);
+    }
+
+    // 双重哈希 h1 + i * h2 映射到位下标
+    private long index(long combined) {
+        return (combined & Long.MAX_VALUE) % numBits;
+    }
+
+    // 字符逐个混入的 64 位哈希（FNV-1a 后接 murmur3 finalizer）
+    private static long hash64(String value) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
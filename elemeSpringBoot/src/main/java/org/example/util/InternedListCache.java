@@ -0,0 +1,60 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分隔字符串解析缓存
+ * 折扣、满减等字段的取值种类很少，同一个原始字符串只解析一次，
+ * 解析结果为共享的不可变列表，元素经过 intern，避免每次请求重复 split
+ */
+public final class InternedListCache {
+
+    // 缓存上限，防止异常数据把缓存撑大；超过后直接解析不再缓存
+    private static final int MAX_ENTRIES = 4096;
+
+    private static final ConcurrentHashMap<String, List<String>> CACHE = new ConcurrentHashMap<>();
+
+    private InternedListCache() {
+    }
+
+    /**
+     * 按分隔符拆分字符串，返回共享的不可变列表
+     * 空值或空白字符串返回空列表
+     */
+    public static List<String> split(String raw, char delimiter) {
+        if (raw == null || raw.isBlank()) {
+            return List.of();
+        }
+        String key = delimiter + raw;
+        List<String> cached = CACHE.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        List<String> parsed = parse(raw, delimiter);
+        if (CACHE.size() < MAX_ENTRIES) {
+            List<String> previous = CACHE.putIfAbsent(key, parsed);
+            if (previous != null) {
+                return previous;
+            }
+        }
+        return parsed;
+    }
+
+    private static List<String> parse(String raw, char delimiter) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= raw.length(); i++) {
+            if (i == raw.length() || raw.charAt(i) == delimiter) {
+                parts.add(raw.substring(start, i).intern());
+                start = i + 1;
+            }
+        }
+        // 与 String.split 保持一致：去掉末尾的空串
+        while (!parts.isEmpty() && parts.get(parts.size() - 1).isEmpty()) {
+            parts.remove(parts.size() - 1);
+        }
+        return List.copyOf(parts);
+    }
+}
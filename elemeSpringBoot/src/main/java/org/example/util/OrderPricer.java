@@ -0,0 +1,50 @@
+package org.example.util;
+
+import org.example.dto.PriceQuote;
+import org.example.dto.PricedFood;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 订单计价
+ * 一次遍历 orderList 完成数量统计和金额累加，全部使用 long 分计算，不产生浮点误差
+ */
+public final class OrderPricer {
+
+    private OrderPricer() {
+    }
+
+    /**
+     * 元转分，四舍五入到分
+     */
+    public static long toCents(double yuan) {
+        return Math.round(yuan * 100);
+    }
+
+    /**
+     * 计算订单价格
+     * 商品不存在、已下架或不属于该商家时返回 null
+     *
+     * @param catalog  商品ID -> 商品快照
+     * @param feeCents 打包费、配送费等固定费用之和
+     */
+    public static PriceQuote quote(Integer businessId, List<Integer> orderList,
+                                   Map<Integer, PricedFood> catalog, long feeCents) {
+        if (orderList == null || orderList.isEmpty()) {
+            return null;
+        }
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        long itemsCents = 0;
+        for (Integer foodId : orderList) {
+            PricedFood food = catalog.get(foodId);
+            if (food == null || !food.isSelling() || !food.getBusiness().equals(businessId)) {
+                return null;
+            }
+            quantities.merge(foodId, 1, Integer::sum);
+            itemsCents += food.getPriceCents();
+        }
+        return new PriceQuote(quantities, catalog, itemsCents, itemsCents + feeCents);
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 无状态登录令牌（HMAC-SHA256 签名）
+ * 格式为 密钥号.手机号.过期时间(秒).签名，签名为 base64url 编码；
+ * 校验只做字符扫描和一次 HMAC，不解析 JSON，也不访问任何共享存储，多实例间只需配置相同的密钥。
+ * 按密钥号保留多把密钥，轮换时新令牌使用新密钥，旧令牌在过期前仍可校验
+ */
+public final class SignedTokenCodec {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final String activeKeyId;
+    // 每把密钥一个线程本地 Mac，避免每次校验都 getInstance/init
+    private final Map<String, ThreadLocal<Mac>> macs = new HashMap<>();
+
+    public SignedTokenCodec(Map<String, byte[]> keys, String activeKeyId) {
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalArgumentException("未配置当前使用的密钥: " + activeKeyId);
+        }
+        for (Map.Entry<String, byte[]> entry : keys.entrySet()) {
+            String keyId = entry.getKey();
+            if (keyId.isEmpty() || keyId.indexOf('.') >= 0) {
+                throw new IllegalArgumentException("密钥号不能为空或包含 '.': " + keyId);
+            }
+            SecretKeySpec key = new SecretKeySpec(entry.getValue().clone(), ALGORITHM);
+            macs.put(keyId, ThreadLocal.withInitial(() -> newMac(key)));
+        }
+        this.activeKeyId = activeKeyId;
+    }
+
+    /**
+     * 签发令牌
+     */
+    public String issue(String phoneNumber, long expiresAtSeconds) {
+        if (phoneNumber == null || phoneNumber.isEmpty() || phoneNumber.indexOf('.') >= 0) {
+            throw new IllegalArgumentException("手机号不合法");
+        }
+        String payload = activeKeyId + '.' + phoneNumber + '.' + expiresAtSeconds;
+        Mac mac = macs.get(activeKeyId).get();
+        updateAscii(mac, payload, payload.length());
+        return payload + '.' + ENCODER.encodeToString(mac.doFinal());
+    }
+
+    /**
+     * 校验令牌，通过时返回手机号；格式错误、签名不符、密钥未知或已过期返回 null
+     */
+    public String verify(String token, long nowSeconds) {
+        if (token == null) {
+            return null;
+        }
+        int first = token.indexOf('.');
+        int second = first < 0 ? -1 : token.indexOf('.', first + 1);
+        int last = token.lastIndexOf('.');
+        if (first <= 0 || second <= first + 1 || last <= second + 1 || token.indexOf('.', second + 1) != last
+                || last == token.length() - 1) {
+            return null;
+        }
+        long expiresAt = parseSeconds(token, second + 1, last);
+        if (expiresAt < 0 || expiresAt <= nowSeconds) {
+            return null;
+        }
+        ThreadLocal<Mac> holder = macs.get(token.substring(0, first));
+        if (holder == null) {
+            return null;
+        }
+        Mac mac = holder.get();
+        if (!updateAscii(mac, token, last)) {
+            mac.reset();
+            return null;
+        }
+        byte[] expected = mac.doFinal();
+        byte[] actual;
+        try {
+            actual = DECODER.decode(token.substring(last + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return null;
+        }
+        return token.substring(first + 1, second);
+    }
+
+    // 逐字符写入 Mac，不为签名部分额外分配字节数组；遇到非 ASCII 字符返回 false
+    private static boolean updateAscii(Mac mac, String text, int end) {
+        for (int i = 0; i < end; i++) {
+            char c = text.charAt(i);
+            if (c > 0x7F) {
+                return false;
+            }
+            mac.update((byte) c);
+        }
+        return true;
+    }
+
+    // 解析十进制秒数，格式错误返回 -1
+    private static long parseSeconds(String text, int start, int end) {
+        if (end - start > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("初始化 HMAC 失败", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分段库存计数器
+ * 库存被拆分到多个相互隔离（缓存行填充）的 CAS 单元中，不同线程优先扣减各自的分段，
+ * 热点商品在高并发下不会全部竞争同一个内存地址，也不需要任何锁
+ */
+public final class StripedStockCounter {
+
+    // 每个分段占 16 个 long（128 字节），避免伪共享
+    private static final int PAD = 16;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    public StripedStockCounter(long initialStock, int stripes) {
+        // 分段数向上取整为 2 的幂
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.cells = new AtomicLongArray(size * PAD);
+        long initial = Math.max(0, initialStock);
+        long share = initial / size;
+        long remainder = initial % size;
+        for (int i = 0; i < size; i++) {
+            cells.set(i * PAD, share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    /**
+     * 尝试扣减 n 个库存，成功返回 true；库存不足时不做任何扣减
+     */
+    public boolean tryAcquire(long n) {
+        if (n <= 0) {
+            return true;
+        }
+        int start = probe();
+        // 1. 优先在单个分段内完成扣减
+        for (int i = 0; i <= mask; i++) {
+            int index = ((start + i) & mask) * PAD;
+            long current;
+            while ((current = cells.get(index)) >= n) {
+                if (cells.compareAndSet(index, current, current - n)) {
+                    return true;
+                }
+            }
+        }
+        // 2. 单个分段不够时从多个分段凑齐，凑不齐则全部归还
+        long taken = 0;
+        for (int i = 0; i <= mask && taken < n; i++) {
+            int index = ((start + i) & mask) * PAD;
+            long current;
+            while ((current = cells.get(index)) > 0) {
+                long take = Math.min(current, n - taken);
+                if (cells.compareAndSet(index, current, current - take)) {
+                    taken += take;
+                    break;
+                }
+            }
+        }
+        if (taken == n) {
+            return true;
+        }
+        release(taken);
+        return false;
+    }
+
+    /**
+     * 归还 n 个库存（取消、超时或补货）
+     */
+    public void release(long n) {
+        if (n > 0) {
+            cells.getAndAdd((probe() & mask) * PAD, n);
+        }
+    }
+
+    /**
+     * 当前可用库存（各分段之和，并发下为近似值）
+     */
+    public long available() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.get(i * PAD);
+        }
+        return sum;
+    }
+
+    private static int probe() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
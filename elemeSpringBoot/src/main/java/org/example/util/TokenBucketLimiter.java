@@ -0,0 +1,98 @@
+package org.example.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按键限流的令牌桶
+ * 每个键的桶是一个 AtomicLong：高 44 位为上次扣减时间（相对创建时刻的毫秒数），
+ * 低 20 位为剩余令牌（千分之一个令牌为单位），一次 CAS 完成补充和扣减，不加锁、不分配对象。
+ * 键的数量有上限，满了以后新键共用一个溢出桶：内存占用有界，已跟踪的键仍按各自的桶限流，
+ * 代价是攻击者用大量不同的键（如轮换手机号）占满表时，新出现的正常键会被一起限流，直到 sweep 移除已补满的桶；
+ * 已补满的桶与新建桶等价，由 sweep 定期移除
+ */
+public final class TokenBucketLimiter {
+
+    private static final int TOKEN_BITS = 20;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long UNIT = 1000;
+    // 桶容量上限，受低位宽度限制
+    public static final int MAX_CAPACITY = (int) (TOKEN_MASK / UNIT);
+
+    private final long capacity;
+    private final long refillMillis;
+    private final int maxKeys;
+    private final long origin;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow;
+
+    /**
+     * @param capacity     桶容量（允许的突发次数）
+     * @param refillMillis 补充一个令牌所需的毫秒数
+     * @param maxKeys      最多跟踪的键数量
+     * @param nowMillis    当前时间
+     */
+    public TokenBucketLimiter(int capacity, long refillMillis, int maxKeys, long nowMillis) {
+        if (capacity < 1 || capacity > MAX_CAPACITY || refillMillis < 1 || maxKeys < 1) {
+            throw new IllegalArgumentException("令牌桶参数错误");
+        }
+        this.capacity = capacity * UNIT;
+        this.refillMillis = refillMillis;
+        this.maxKeys = maxKeys;
+        this.origin = nowMillis;
+        this.overflow = new AtomicLong(this.capacity);
+    }
+
+    /**
+     * 尝试为 key 扣减一个令牌，成功返回 true
+     */
+    public boolean tryAcquire(String key, long nowMillis) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                bucket = overflow;
+            } else {
+                bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(capacity));
+            }
+        }
+        long now = Math.max(0, nowMillis - origin);
+        while (true) {
+            long state = bucket.get();
+            long tokens = refill(state, now);
+            if (tokens < UNIT) {
+                return false;
+            }
+            if (bucket.compareAndSet(state, (now << TOKEN_BITS) | (tokens - UNIT))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 移除已补满的桶，返回移除数量
+     */
+    public int sweep(long nowMillis) {
+        long now = Math.max(0, nowMillis - origin);
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> refill(bucket.get(), now) >= capacity);
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private long refill(long state, long now) {
+        long last = state >>> TOKEN_BITS;
+        long tokens = state & TOKEN_MASK;
+        long elapsed = now - last;
+        if (elapsed <= 0) {
+            return tokens;
+        }
+        // 避免长时间空闲时乘法溢出
+        if (elapsed >= refillMillis * (capacity / UNIT)) {
+            return capacity;
+        }
+        return Math.min(capacity, tokens + elapsed * UNIT / refillMillis);
+    }
+}
@@ -0,0 +1,81 @@
+package org.example;
+
+import org.example.util.BloomFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 布隆过滤器测试
+ */
+@DisplayName("布隆过滤器测试")
+class BloomFilterTest {
+
+    private static String phone(int i) {
+        return String.format("138%08d", i);
+    }
+
+    @Test
+    @DisplayName("已加入的元素一定命中")
+    void testNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put(phone(i));
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filter.mightContain(phone(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("误判率接近配置值")
+    void testFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put(phone(i));
+        }
+        int falsePositives = 0;
+        for (int i = 10000; i < 110000; i++) {
+            if (filter.mightContain(phone(i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2000, "误判率应在 2% 以内，实际 " + falsePositives + "/100000");
+    }
+
+    @Test
+    @DisplayName("写出后读回内容不变，可以合并")
+    void testSnapshotRoundTrip() throws IOException {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        filter.put(phone(1));
+        filter.put(phone(2));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.writeTo(new DataOutputStream(bytes));
+
+        BloomFilter loaded = BloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertTrue(filter.sameShape(loaded));
+        assertTrue(loaded.mightContain(phone(1)));
+        assertTrue(loaded.mightContain(phone(2)));
+
+        BloomFilter fresh = new BloomFilter(1000, 0.01);
+        assertFalse(fresh.mightContain(phone(1)));
+        fresh.merge(loaded);
+        assertTrue(fresh.mightContain(phone(1)));
+        assertFalse(fresh.sameShape(new BloomFilter(5000, 0.01)));
+    }
+
+    @Test
+    @DisplayName("损坏的快照被拒绝")
+    void testCorruptSnapshot() {
+        byte[] garbage = {1, 2, 3, 4, 5, 6, 7, 8};
+        assertThrows(IOException.class,
+                () -> BloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(garbage))));
+    }
+}
@@ -0,0 +1,88 @@
+package org.example;
+
+import org.example.captcha.service.CaptchaData;
+import org.example.captcha.service.CaptchaStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 验证码存储测试
+ */
+@DisplayName("验证码存储测试")
+class CaptchaStoreTest {
+
+    private static CaptchaData captcha(String code) {
+        return new CaptchaData(UUID.randomUUID(), code, LocalDateTime.now());
+    }
+
+    @Test
+    @DisplayName("验证码只能取出一次")
+    void testSingleUse() {
+        CaptchaStore store = new CaptchaStore(5000, 1000, 100, 0);
+        CaptchaData data = captcha("AB12");
+        store.put(data, 0);
+        assertEquals("AB12", store.remove(data.getId(), 100).getCode());
+        assertNull(store.remove(data.getId(), 100));
+        assertNull(store.remove(null, 100));
+    }
+
+    @Test
+    @DisplayName("过期的验证码不可用，时间轮到期后回收")
+    void testExpiry() {
+        CaptchaStore store = new CaptchaStore(5000, 1000, 100, 0);
+        CaptchaData early = captcha("AAAA");
+        CaptchaData late = captcha("BBBB");
+        store.put(early, 0);
+        store.put(late, 3000);
+
+        assertEquals(0, store.advance(4000));
+        assertEquals(2, store.size());
+        assertEquals(1, store.advance(5000));
+        assertEquals(1, store.size());
+        assertEquals(1, store.advance(8000));
+        assertEquals(0, store.size());
+
+        CaptchaData expired = captcha("CCCC");
+        store.put(expired, 10000);
+        assertNull(store.remove(expired.getId(), 15000));
+    }
+
+    @Test
+    @DisplayName("长时间没有推进时一次回收全部过期验证码")
+    void testAdvanceAfterPause() {
+        CaptchaStore store = new CaptchaStore(5000, 1000, 100, 0);
+        for (int i = 0; i < 10; i++) {
+            store.put(captcha("A" + i), i * 500L);
+        }
+        assertEquals(10, store.advance(60000));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("达到容量上限后淘汰最早过期的验证码")
+    void testCapacity() {
+        CaptchaStore store = new CaptchaStore(5000, 1000, 3, 0);
+        CaptchaData first = captcha("1111");
+        store.put(first, 0);
+        store.put(captcha("2222"), 1000);
+        store.put(captcha("3333"), 2000);
+        CaptchaData fourth = captcha("4444");
+        store.put(fourth, 3000);
+        assertEquals(3, store.size());
+        assertNull(store.remove(first.getId(), 3000));
+        assertNotNull(store.remove(fourth.getId(), 3000));
+
+        // 已使用但尚未回收的也计入上限，刷接口时内存保持有界
+        for (int i = 0; i < 1000; i++) {
+            CaptchaData data = captcha("X");
+            store.put(data, 3000);
+            store.remove(data.getId(), 3000);
+        }
+        assertTrue(store.size() <= 3);
+    }
+}
@@ -0,0 +1,127 @@
+package org.example;
+
+import org.example.entity.IdempotencyKey;
+import org.example.mapper.IIdempotencyKeyMapper;
+import org.example.service.impl.IdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 下单幂等键服务测试：处理中的请求合并、数据库回查与失败后释放
+ */
+@DisplayName("下单幂等键服务测试")
+class IdempotencyServiceTest {
+
+    private static final String KEY = "13800000000:retry-1";
+
+    private IdempotencyService service;
+    private IIdempotencyKeyMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(IIdempotencyKeyMapper.class);
+        when(mapper.findById(anyString())).thenReturn(Optional.empty());
+        service = new IdempotencyService();
+        ReflectionTestUtils.setField(service, "idempotencyKeyMapper", mapper);
+        ReflectionTestUtils.setField(service, "ttlMillis", 60000L);
+        ReflectionTestUtils.setField(service, "maxEntries", 100);
+    }
+
+    private static IdempotencyKey stored(long orderId, LocalDateTime createdAt) {
+        IdempotencyKey key = new IdempotencyKey();
+        key.setIdemKey(KEY);
+        key.setOrderId(orderId);
+        key.setCreatedAt(createdAt);
+        return key;
+    }
+
+    @Test
+    @DisplayName("处理中的重复请求等待原请求的结果，完成后不再查库")
+    void testConcurrentRequestWaitsForPending() throws Exception {
+        assertNull(service.begin(KEY));
+        CompletableFuture<Long> waiting = service.begin(KEY);
+        assertNotNull(waiting);
+        assertFalse(waiting.isDone());
+
+        service.finish(KEY, 42L);
+        assertEquals(42L, waiting.get());
+
+        CompletableFuture<Long> replay = service.begin(KEY);
+        assertEquals(42L, replay.get());
+        // 只有第一次登记时查过一次库
+        verify(mapper, times(1)).findById(KEY);
+    }
+
+    @Test
+    @DisplayName("内存未命中时回查数据库中未过期的键")
+    void testDatabaseFallback() throws Exception {
+        when(mapper.findById(KEY)).thenReturn(Optional.of(stored(7L, LocalDateTime.now())));
+
+        CompletableFuture<Long> replay = service.begin(KEY);
+        assertEquals(7L, replay.get());
+        // 回查结果放入内存，之后不再查库
+        assertEquals(7L, service.begin(KEY).get());
+        verify(mapper, times(1)).findById(KEY);
+    }
+
+    @Test
+    @DisplayName("数据库中已过期的键按新请求处理")
+    void testExpiredDatabaseKeyIgnored() {
+        when(mapper.findById(KEY)).thenReturn(Optional.of(stored(7L, LocalDateTime.now().minusHours(1))));
+
+        assertNull(service.begin(KEY));
+    }
+
+    @Test
+    @DisplayName("流水线唯一键冲突时返回其他请求已提交的订单")
+    void testAttachedConflictResolvedFromDatabase() throws Exception {
+        assertNull(service.begin(KEY));
+        CompletableFuture<Long> waiting = service.begin(KEY);
+        CompletableFuture<Long> outcome = new CompletableFuture<>();
+        service.attach(KEY, outcome);
+        // 已交给流水线后，请求线程的 finish 不会抢先完成
+        service.finish(KEY, null);
+        assertFalse(waiting.isDone());
+
+        when(mapper.findById(KEY)).thenReturn(Optional.of(stored(9L, LocalDateTime.now())));
+        outcome.completeExceptionally(new DuplicateKeyException("idem_key"));
+        assertEquals(9L, waiting.get());
+    }
+
+    @Test
+    @DisplayName("原请求失败时等待者收到异常，键被释放可以重试")
+    void testFailureReleasesKey() {
+        assertNull(service.begin(KEY));
+        CompletableFuture<Long> waiting = service.begin(KEY);
+        CompletableFuture<Long> outcome = new CompletableFuture<>();
+        service.attach(KEY, outcome);
+
+        outcome.completeExceptionally(new IllegalStateException("写入失败"));
+        ExecutionException error = assertThrows(ExecutionException.class, waiting::get);
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertNull(service.begin(KEY));
+    }
+
+    @Test
+    @DisplayName("库存不足的结果不保留，同一个键可以再次下单")
+    void testOutOfStockNotRetained() throws Exception {
+        assertNull(service.begin(KEY));
+        CompletableFuture<Long> waiting = service.begin(KEY);
+        service.finish(KEY, -1L);
+        assertEquals(-1L, waiting.get());
+        assertNull(service.begin(KEY));
+    }
+}
@@ -0,0 +1,145 @@
+package org.example;
+
+import org.example.mapper.IUserMapper;
+import org.example.service.impl.LoginAttemptTracker;
+import org.example.service.impl.UserProfileCache;
+import org.example.util.ValidationUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 登录失败次数记账测试：窗口过期与锁定状态变化
+ */
+@DisplayName("登录失败次数记账测试")
+class LoginAttemptTrackerTest {
+
+    private static final String PHONE = "13800000000";
+    private static final int MAX = ValidationUtils.MAX_LOGIN_ATTEMPTS;
+
+    private final IUserMapper userMapper = mock(IUserMapper.class);
+    private final UserProfileCache userProfileCache = mock(UserProfileCache.class);
+    private LoginAttemptTracker tracker;
+
+    private LoginAttemptTracker tracker(long windowMillis, int maxEntries) {
+        tracker = new LoginAttemptTracker();
+        ReflectionTestUtils.setField(tracker, "userMapper", userMapper);
+        ReflectionTestUtils.setField(tracker, "userProfileCache", userProfileCache);
+        ReflectionTestUtils.setField(tracker, "windowMillis", windowMillis);
+        ReflectionTestUtils.setField(tracker, "maxEntries", maxEntries);
+        tracker.start();
+        return tracker;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (tracker != null) {
+            tracker.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("窗口内累计失败次数，达到上限时锁定并立即落库")
+    void testLockTransition() {
+        LoginAttemptTracker tracker = tracker(60000, 100);
+        for (int i = 1; i < MAX; i++) {
+            assertFalse(tracker.recordFailure(PHONE, null));
+            assertEquals(i, tracker.attempts(PHONE, null));
+        }
+        assertFalse(tracker.isLocked(PHONE));
+
+        assertTrue(tracker.recordFailure(PHONE, null), "达到上限的这一次应该触发锁定");
+        assertTrue(tracker.isLocked(PHONE));
+        verify(userMapper, timeout(2000)).saveLoginAttempts(PHONE, MAX, true);
+        verify(userProfileCache, timeout(2000).atLeastOnce()).invalidate(PHONE);
+
+        // 已锁定后不再计数
+        assertTrue(tracker.recordFailure(PHONE, null));
+        assertEquals(MAX, tracker.attempts(PHONE, null));
+    }
+
+    @Test
+    @DisplayName("内存中没有记录时从数据库中的次数继续累计")
+    void testSeedFromPersistedAttempts() {
+        LoginAttemptTracker tracker = tracker(60000, 100);
+        assertTrue(tracker.recordFailure(PHONE, MAX - 1));
+        assertTrue(tracker.isLocked(PHONE));
+    }
+
+    @Test
+    @DisplayName("窗口结束后重新计数")
+    void testWindowExpiry() throws InterruptedException {
+        LoginAttemptTracker tracker = tracker(50, 100);
+        tracker.recordFailure(PHONE, null);
+        tracker.recordFailure(PHONE, null);
+        Thread.sleep(80);
+
+        assertEquals(0, tracker.attempts(PHONE, 2), "窗口已结束的次数按 0 计");
+        assertFalse(tracker.recordFailure(PHONE, null));
+        assertEquals(1, tracker.attempts(PHONE, null));
+    }
+
+    @Test
+    @DisplayName("定期写入后清理窗口已结束的记录，并把数据库中的次数写回 0")
+    void testFlushClearsExpiredWindow() throws InterruptedException {
+        LoginAttemptTracker tracker = tracker(50, 100);
+        tracker.recordFailure(PHONE, null);
+        tracker.recordFailure(PHONE, null);
+        Thread.sleep(80);
+
+        tracker.flush();
+        InOrder inOrder = inOrder(userMapper);
+        inOrder.verify(userMapper).saveLoginAttempts(PHONE, 2, false);
+        inOrder.verify(userMapper).saveLoginAttempts(PHONE, 0, false);
+        // 内存记录已删除，之后以数据库中的次数为准
+        assertEquals(3, tracker.attempts(PHONE, 3));
+    }
+
+    @Test
+    @DisplayName("锁定的账户在窗口结束后仍保持锁定，不写回 0")
+    void testLockSurvivesWindowExpiry() throws InterruptedException {
+        LoginAttemptTracker tracker = tracker(50, 100);
+        tracker.lock(PHONE);
+        verify(userMapper, timeout(2000)).saveLoginAttempts(PHONE, MAX, true);
+        Thread.sleep(80);
+
+        tracker.flush();
+        verify(userMapper, never()).saveLoginAttempts(PHONE, 0, false);
+    }
+
+    @Test
+    @DisplayName("登录成功清除失败记录并在后台重置数据库")
+    void testSuccessResets() {
+        LoginAttemptTracker tracker = tracker(60000, 100);
+        tracker.recordFailure(PHONE, null);
+        tracker.recordSuccess(PHONE, 1);
+
+        assertEquals(0, tracker.attempts(PHONE, null));
+        assertFalse(tracker.isLocked(PHONE));
+        verify(userMapper, timeout(2000)).resetLoginAttempts(PHONE);
+    }
+
+    @Test
+    @DisplayName("没有失败记录时登录成功不写数据库")
+    void testSuccessWithoutFailuresSkipsWrite() {
+        LoginAttemptTracker tracker = tracker(60000, 100);
+        tracker.recordSuccess(PHONE, 0);
+        tracker.flush();
+        verifyNoInteractions(userMapper);
+    }
+
+    @Test
+    @DisplayName("内存已满时退回到单条 UPDATE")
+    void testFallbackWhenFull() {
+        LoginAttemptTracker tracker = tracker(60000, 0);
+        assertFalse(tracker.recordFailure(PHONE, 1));
+        assertTrue(tracker.recordFailure(PHONE, MAX - 1));
+        verify(userMapper, times(2)).incrementLoginAttempts(PHONE, MAX);
+        assertFalse(tracker.isLocked(PHONE));
+    }
+}
@@ -71,7 +71,7 @@ class OrderControllerTest {
             requestData.put("ID", 1);
 
             UserOrder mockOrder = createMockUserOrder(1, "13812345678", 89.5);
-            when(userOrderService.getById(1)).thenReturn(mockOrder);
+            when(userOrderService.getById(1L)).thenReturn(mockOrder);
 
             mockMvc.perform(post("/order/getUserOrderById")
                     .contentType(MediaType.APPLICATION_JSON)
@@ -80,7 +80,7 @@ class OrderControllerTest {
                     .andExpect(jsonPath("$.id").value(1))
                     .andExpect(jsonPath("$.userPhone").value("13812345678"));
 
-            verify(userOrderService, times(1)).getById(1);
+            verify(userOrderService, times(1)).getById(1L);
         }
 
         @Test
@@ -89,14 +89,14 @@ class OrderControllerTest {
             Map<String, Integer> requestData = new HashMap<>();
             requestData.put("ID", 999);
 
-            when(userOrderService.getById(999)).thenReturn(null);
+            when(userOrderService.getById(999L)).thenReturn(null);
 
             mockMvc.perform(post("/order/getUserOrderById")
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(requestData)))
                     .andExpect(status().isNotFound());
 
-            verify(userOrderService, times(1)).getById(999);
+            verify(userOrderService, times(1)).getById(999L);
         }
 
         @Test
@@ -119,7 +119,7 @@ class OrderControllerTest {
             Map<String, Integer> requestData = new HashMap<>();
             requestData.put("ID", -1);
 
-            when(userOrderService.getById(-1)).thenReturn(null);
+            when(userOrderService.getById(-1L)).thenReturn(null);
 
             mockMvc.perform(post("/order/getUserOrderById")
                     .contentType(MediaType.APPLICATION_JSON)
@@ -133,7 +133,7 @@ class OrderControllerTest {
             Map<String, Integer> requestData = new HashMap<>();
             requestData.put("ID", 0);
 
-            when(userOrderService.getById(0)).thenReturn(null);
+            when(userOrderService.getById(0L)).thenReturn(null);
 
             mockMvc.perform(post("/order/getUserOrderById")
                     .contentType(MediaType.APPLICATION_JSON)
@@ -147,7 +147,7 @@ class OrderControllerTest {
             Map<String, Integer> requestData = new HashMap<>();
             requestData.put("ID", Integer.MAX_VALUE);
 
-            when(userOrderService.getById(Integer.MAX_VALUE)).thenReturn(null);
+            when(userOrderService.getById((long) Integer.MAX_VALUE)).thenReturn(null);
 
             mockMvc.perform(post("/order/getUserOrderById")
                     .contentType(MediaType.APPLICATION_JSON)
@@ -164,7 +164,7 @@ class OrderControllerTest {
         @DisplayName("成功添加用户订单")
         void testAddUserOrderSuccess() throws Exception {
             OrderRequestDTO mockRequest = createMockOrderRequestDTO();
-            when(userOrderService.addUserOrder(any(OrderRequestDTO.class))).thenReturn(1);
+            when(userOrderService.addUserOrder(any(OrderRequestDTO.class))).thenReturn(1L);
 
             mockMvc.perform(post("/order/addUserOrder")
                     .contentType(MediaType.APPLICATION_JSON)
@@ -179,7 +179,7 @@ class OrderControllerTest {
         @DisplayName("添加用户订单失败 - 服务返回0")
         void testAddUserOrderFailed() throws Exception {
             OrderRequestDTO mockRequest = createMockOrderRequestDTO();
-            when(userOrderService.addUserOrder(any(OrderRequestDTO.class))).thenReturn(0);
+            when(userOrderService.addUserOrder(any(OrderRequestDTO.class))).thenReturn(0L);
 
             mockMvc.perform(post("/order/addUserOrder")
                     .contentType(MediaType.APPLICATION_JSON)
@@ -223,7 +223,7 @@ class OrderControllerTest {
             Map<String, Integer> requestData = new HashMap<>();
             requestData.put("ID", 1);
 
-            when(userOrderService.havePayed(1)).thenReturn(true);
+            when(userOrderService.havePayed(1L)).thenReturn(true);
 
             mockMvc.perform(post("/order/havePayed")
                     .contentType(MediaType.APPLICATION_JSON)
@@ -231,7 +231,7 @@ class OrderControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$").value(true));
 
-            verify(userOrderService, times(1)).havePayed(1);
+            verify(userOrderService, times(1)).havePayed(1L);
         }
 
         @Test
@@ -240,7 +240,7 @@ class OrderControllerTest {
             Map<String, Integer> requestData = new HashMap<>();
             requestData.put("ID", 1);
 
-            when(userOrderService.havePayed(1)).thenReturn(false);
+            when(userOrderService.havePayed(1L)).thenReturn(false);
 
             mockMvc.perform(post("/order/havePayed")
                     .contentType(MediaType.APPLICATION_JSON)
@@ -270,7 +270,7 @@ class OrderControllerTest {
             Map<String, Integer> requestData = new HashMap<>();
             requestData.put("ID", -1);
 
-            when(userOrderService.havePayed(-1)).thenReturn(false);
+            when(userOrderService.havePayed(-1L)).thenReturn(false);
 
             mockMvc.perform(post("/order/havePayed")
                     .contentType(MediaType.APPLICATION_JSON)
@@ -368,7 +368,7 @@ class OrderControllerTest {
             requestData.put("ID", 1);
 
             OrderDetailDTO mockDetail = createMockOrderDetailDTO(1, "13812345678");
-            when(userOrderService.getOrderDetail(1)).thenReturn(mockDetail);
+            when(userOrderService.getOrderDetail(1L)).thenReturn(mockDetail);
 
             mockMvc.perform(post("/order/getOrderDetail")
                     .contentType(MediaType.APPLICATION_JSON)
@@ -377,7 +377,7 @@ class OrderControllerTest {
                     .andExpect(jsonPath("$.orderId").value(1))
                     .andExpect(jsonPath("$.userPhone").value("13812345678"));
 
-            verify(userOrderService, times(1)).getOrderDetail(1);
+            verify(userOrderService, times(1)).getOrderDetail(1L);
         }
 
         @Test
@@ -386,14 +386,14 @@ class OrderControllerTest {
             Map<String, Integer> requestData = new HashMap<>();
             requestData.put("ID", 999);
 
-            when(userOrderService.getOrderDetail(999)).thenReturn(null);
+            when(userOrderService.getOrderDetail(999L)).thenReturn(null);
 
             mockMvc.perform(post("/order/getOrderDetail")
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(requestData)))
                     .andExpect(status().isNoContent());
 
-            verify(userOrderService, times(1)).getOrderDetail(999);
+            verify(userOrderService, times(1)).getOrderDetail(999L);
         }
 
         @Test
@@ -416,7 +416,7 @@ class OrderControllerTest {
             Map<String, Integer> requestData = new HashMap<>();
             requestData.put("ID", -1);
 
-            when(userOrderService.getOrderDetail(-1)).thenReturn(null);
+            when(userOrderService.getOrderDetail(-1L)).thenReturn(null);
 
             mockMvc.perform(post("/order/getOrderDetail")
                     .contentType(MediaType.APPLICATION_JSON)  
@@ -444,29 +444,29 @@ class OrderControllerTest {
                 // 反射失败则跳过时间设置
             }
 
-            when(userOrderService.getById(1)).thenReturn(mockOrder);
+            when(userOrderService.getById(1L)).thenReturn(mockOrder);
 
             mockMvc.perform(get("/order/getOrderTime/1"))
                     .andExpect(status().isOk());
 
-            verify(userOrderService, times(1)).getById(1);
+            verify(userOrderService, times(1)).getById(1L);
         }
 
         @Test
         @DisplayName("获取订单时间失败 - 订单不存在")
         void testGetOrderTimeNotFound() throws Exception {
-            when(userOrderService.getById(999)).thenReturn(null);
+            when(userOrderService.getById(999L)).thenReturn(null);
 
             mockMvc.perform(get("/order/getOrderTime/999"))
                     .andExpect(status().isNotFound());
 
-            verify(userOrderService, times(1)).getById(999);
+            verify(userOrderService, times(1)).getById(999L);
         }
 
         @Test
         @DisplayName("获取订单时间 - ID为0")
         void testGetOrderTimeZeroId() throws Exception {
-            when(userOrderService.getById(0)).thenReturn(null);
+            when(userOrderService.getById(0L)).thenReturn(null);
 
             mockMvc.perform(get("/order/getOrderTime/0"))
                     .andExpect(status().isNotFound());
@@ -475,7 +475,7 @@ class OrderControllerTest {
         @Test
         @DisplayName("边界值测试 - 最大整数ID")
         void testGetOrderTimeMaxInteger() throws Exception {
-            when(userOrderService.getById(Integer.MAX_VALUE)).thenReturn(null);
+            when(userOrderService.getById((long) Integer.MAX_VALUE)).thenReturn(null);
 
             mockMvc.perform(get("/order/getOrderTime/" + Integer.MAX_VALUE))
                     .andExpect(status().isNotFound());
@@ -497,7 +497,7 @@ class OrderControllerTest {
                 requestData.put("ID", id);
 
                 UserOrder mockOrder = createMockUserOrder(id, "13812345678", 89.5);
-                when(userOrderService.getById(id)).thenReturn(mockOrder);
+                when(userOrderService.getById(id.longValue())).thenReturn(mockOrder);
 
                 mockMvc.perform(post("/order/getUserOrderById")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -519,7 +519,7 @@ class OrderControllerTest {
                 Map<String, Integer> requestData = new HashMap<>();
                 requestData.put("ID", id);
 
-                when(userOrderService.getById(id)).thenReturn(null);
+                when(userOrderService.getById(id.longValue())).thenReturn(null);
 
                 mockMvc.perform(post("/order/getUserOrderById")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,137 @@
+package org.example;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.entity.UserOrder;
+import org.example.service.impl.OrderIngestionPipeline;
+import org.example.service.impl.OrderOutboxWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 订单写入流水线测试：整批提交失败时逐条重试
+ */
+@DisplayName("订单写入流水线测试")
+class OrderIngestionPipelineTest {
+
+    private static final long BAD_ORDER_ID = 2L;
+
+    private OrderIngestionPipeline pipeline;
+    private OrderOutboxWriter outboxWriter;
+    // 每次写入发件箱时的订单ID，一次调用对应一个事务
+    private final List<List<Long>> transactions = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        // 发件箱写入是每个事务的最后一步，含坏订单的事务在这里失败
+        outboxWriter = mock(OrderOutboxWriter.class);
+        doAnswer(invocation -> {
+            List<Long> ids = ((List<UserOrder>) invocation.getArgument(0)).stream().map(UserOrder::getId).toList();
+            synchronized (transactions) {
+                transactions.add(ids);
+            }
+            if (ids.contains(BAD_ORDER_ID)) {
+                throw new DuplicateKeyException("幂等键冲突");
+            }
+            return null;
+        }).when(outboxWriter).appendCreated(anyList());
+
+        pipeline = new OrderIngestionPipeline();
+        ReflectionTestUtils.setField(pipeline, "jdbcTemplate", mock(JdbcTemplate.class));
+        ReflectionTestUtils.setField(pipeline, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(pipeline, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pipeline, "orderOutboxWriter", outboxWriter);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 16);
+        ReflectionTestUtils.setField(pipeline, "batchSize", 3);
+        // 攒批等待足够长，三个订单一定进入同一批
+        ReflectionTestUtils.setField(pipeline, "maxLatencyMillis", 500L);
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.stop();
+    }
+
+    private static UserOrder order(long id) {
+        UserOrder order = new UserOrder();
+        order.setID(id);
+        order.setBusinessID(1);
+        order.setUserPhone("13800000000");
+        order.setPrice(10.0);
+        order.setState(0);
+        order.setCreatedAt(LocalDateTime.now());
+        return order;
+    }
+
+    @Test
+    @DisplayName("整批成功时一个事务写入全部订单")
+    void testBatchCommit() throws Exception {
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (long id = 10; id < 13; id++) {
+            futures.add(pipeline.submit(order(id), List.of(), null));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(10L + i, futures.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of(List.of(10L, 11L, 12L)), transactions);
+    }
+
+    @Test
+    @DisplayName("整批失败后逐条重试，只有出错的订单失败")
+    void testBatchFailureRetriesEachOrder() throws Exception {
+        CompletableFuture<Long> first = pipeline.submit(order(1L), List.of(), "k1");
+        CompletableFuture<Long> bad = pipeline.submit(order(BAD_ORDER_ID), List.of(), "k2");
+        CompletableFuture<Long> third = pipeline.submit(order(3L), List.of(), "k3");
+
+        assertEquals(1L, first.get(5, TimeUnit.SECONDS));
+        assertEquals(3L, third.get(5, TimeUnit.SECONDS));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DuplicateKeyException.class, error.getCause());
+        // 一次整批事务 + 三次单条事务
+        assertEquals(List.of(List.of(1L, 2L, 3L), List.of(1L), List.of(2L), List.of(3L)), transactions);
+    }
+
+    @Test
+    @DisplayName("只有一条订单的批次失败时不再重试")
+    void testSingleOrderFailureNotRetried() {
+        CompletableFuture<Long> bad = pipeline.submit(order(BAD_ORDER_ID), List.of(), null);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DuplicateKeyException.class, error.getCause());
+        verify(outboxWriter, times(1)).appendCreated(anyList());
+    }
+
+    @Test
+    @DisplayName("停止后提交的订单立即被拒绝")
+    void testRejectAfterStop() throws InterruptedException {
+        pipeline.stop();
+        CompletableFuture<Long> rejected = pipeline.submit(order(4L), List.of(), null);
+        assertTrue(rejected.isCompletedExceptionally());
+    }
+}
@@ -0,0 +1,89 @@
+package org.example;
+
+import org.example.dto.PriceQuote;
+import org.example.dto.PricedFood;
+import org.example.util.OrderPricer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 订单计价测试
+ */
+@DisplayName("订单计价测试")
+class OrderPricerTest {
+
+    private static final Map<Integer, PricedFood> CATALOG = Map.of(
+            1, new PricedFood(1, 10, 1550, true),
+            2, new PricedFood(2, 10, 820, true),
+            3, new PricedFood(3, 10, 990, false),
+            4, new PricedFood(4, 20, 1200, true));
+
+    @Test
+    @DisplayName("按商品现价和数量累加并加上固定费用")
+    void testQuote() {
+        PriceQuote quote = OrderPricer.quote(10, List.of(1, 2, 1), CATALOG, 680);
+        assertNotNull(quote);
+        assertEquals(1550 * 2 + 820, quote.getItemsCents());
+        assertEquals(1550 * 2 + 820 + 680, quote.getTotalCents());
+        assertEquals(2, quote.getQuantities().get(1));
+        assertEquals(1, quote.getQuantities().get(2));
+        assertEquals(List.of(1, 2), List.copyOf(quote.getQuantities().keySet()), "明细按首次出现顺序排列");
+    }
+
+    @Test
+    @DisplayName("商品不存在、已下架或不属于该商家时拒绝")
+    void testRejectInvalidFood() {
+        assertNull(OrderPricer.quote(10, List.of(1, 99), CATALOG, 0), "商品不存在");
+        assertNull(OrderPricer.quote(10, List.of(3), CATALOG, 0), "商品已下架");
+        assertNull(OrderPricer.quote(10, List.of(1, 4), CATALOG, 0), "商品属于其他商家");
+        assertNull(OrderPricer.quote(10, List.of(), CATALOG, 0), "空订单");
+    }
+
+    @Test
+    @DisplayName("下单页提交的金额与服务端按配置费用计价一致")
+    void testCheckoutPageMatchesServer() throws IOException {
+        Properties config = new Properties();
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("application.properties")) {
+            assertNotNull(in);
+            config.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        long feeCents = Long.parseLong(config.getProperty("order.pricing.packaging-fee-cents"))
+                + Long.parseLong(config.getProperty("order.pricing.delivery-fee-cents"));
+
+        // 购物车：商品 1 两份、商品 2 一份，按 ConfirmOrderView 的算法计算提交金额
+        List<Integer> cart = List.of(1, 1, 2);
+        double itemsTotal = 0;
+        for (Integer id : cart) {
+            itemsTotal += CATALOG.get(id).getPriceCents() / 100.0;
+        }
+        double packagingFee = 1.6;
+        double finalDeliveryFee = 6.0 - 3.0;
+        double submitted = new BigDecimal(itemsTotal + packagingFee + finalDeliveryFee)
+                .setScale(2, RoundingMode.HALF_UP).doubleValue();
+
+        PriceQuote quote = OrderPricer.quote(10, cart, CATALOG, feeCents);
+        assertNotNull(quote);
+        assertTrue(Math.abs(OrderPricer.toCents(submitted) - quote.getTotalCents()) <= 1,
+                "提交金额 " + submitted + " 与服务端金额 " + quote.getTotalCents() + " 分不一致");
+    }
+
+    @Test
+    @DisplayName("元转分没有浮点误差")
+    void testToCents() {
+        assertEquals(2720, OrderPricer.toCents(0.1 + 27.1));
+        assertEquals(1999, OrderPricer.toCents(19.99));
+        assertEquals(30, OrderPricer.toCents(0.1 + 0.2));
+    }
+}
@@ -0,0 +1,65 @@
+package org.example;
+
+import org.example.dto.PriceQuote;
+import org.example.dto.PricedFood;
+import org.example.util.OrderPricer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 下单计价基准测试（不在 mvn test 中运行）
+ * 运行：mvn test-compile 后执行
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" org.example.OrderPricingBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderPricingBenchmark {
+
+    private static final int BUSINESS_ID = 1;
+
+    //每单商品件数
+    @Param({"3", "10", "30"})
+    int items;
+
+    private Map<Integer, PricedFood> catalog;
+    private List<Integer> orderList;
+
+    @Setup
+    public void setup() {
+        catalog = new HashMap<>();
+        for (int id = 1; id <= 200; id++) {
+            catalog.put(id, new PricedFood(id, BUSINESS_ID, 500 + id * 7L, true));
+        }
+        orderList = new ArrayList<>(items);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < items; i++) {
+            orderList.add(1 + random.nextInt(200));
+        }
+    }
+
+    @Benchmark
+    public PriceQuote quote() {
+        return OrderPricer.quote(BUSINESS_ID, orderList, catalog, 680);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(OrderPricingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
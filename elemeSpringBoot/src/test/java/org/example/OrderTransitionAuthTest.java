@@ -0,0 +1,161 @@
+package org.example;
+
+import org.example.config.SessionAuthFilter;
+import org.example.entity.UserOrder;
+import org.example.service.IBusinessService;
+import org.example.service.IUserOrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 订单状态变更接口的权限测试
+ * 取消只允许下单用户，开始配送和完成只允许订单所属商家的店主
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebMvc
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb",
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.sql.init.mode=never"
+})
+@DisplayName("订单状态变更权限测试")
+class OrderTransitionAuthTest {
+
+    private MockMvc mockMvc;
+
+    @MockBean
+    private IUserOrderService userOrderService;
+
+    @MockBean
+    private IBusinessService businessService;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    private UserOrder order;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        order = new UserOrder();
+        order.setID(1L);
+        order.setBusinessID(10);
+        order.setUserPhone("13812345678");
+        when(userOrderService.getById(1L)).thenReturn(order);
+    }
+
+    @Test
+    @DisplayName("取消订单失败 - 未登录")
+    void testCancelOrderUnauthorized() throws Exception {
+        mockMvc.perform(post("/order/cancel")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ID\":1}"))
+                .andExpect(status().isUnauthorized());
+
+        verify(userOrderService, never()).cancelOrder(any());
+    }
+
+    @Test
+    @DisplayName("取消订单失败 - 不是下单用户")
+    void testCancelOrderForbidden() throws Exception {
+        mockMvc.perform(post("/order/cancel")
+                .requestAttr(SessionAuthFilter.CURRENT_PHONE, "13900000000")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ID\":1}"))
+                .andExpect(status().isForbidden());
+
+        verify(userOrderService, never()).cancelOrder(any());
+    }
+
+    @Test
+    @DisplayName("下单用户成功取消订单")
+    void testCancelOrderByOwner() throws Exception {
+        when(userOrderService.cancelOrder(1L)).thenReturn(true);
+
+        mockMvc.perform(post("/order/cancel")
+                .requestAttr(SessionAuthFilter.CURRENT_PHONE, "13812345678")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ID\":1}"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("true"));
+    }
+
+    @Test
+    @DisplayName("开始配送失败 - 未登录")
+    void testStartDeliveryUnauthorized() throws Exception {
+        mockMvc.perform(post("/order/startDelivery")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ID\":1}"))
+                .andExpect(status().isUnauthorized());
+
+        verify(userOrderService, never()).startDelivery(any());
+    }
+
+    @Test
+    @DisplayName("开始配送失败 - 不是订单所属商家")
+    void testStartDeliveryForbidden() throws Exception {
+        when(businessService.isOwnedBy(10, "13812345678")).thenReturn(false);
+
+        mockMvc.perform(post("/order/startDelivery")
+                .requestAttr(SessionAuthFilter.CURRENT_PHONE, "13812345678")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ID\":1}"))
+                .andExpect(status().isForbidden());
+
+        verify(userOrderService, never()).startDelivery(any());
+    }
+
+    @Test
+    @DisplayName("完成订单失败 - 未登录")
+    void testCompleteOrderUnauthorized() throws Exception {
+        mockMvc.perform(post("/order/complete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ID\":1}"))
+                .andExpect(status().isUnauthorized());
+
+        verify(userOrderService, never()).completeOrder(any());
+    }
+
+    @Test
+    @DisplayName("完成订单失败 - 不是订单所属商家")
+    void testCompleteOrderForbidden() throws Exception {
+        when(businessService.isOwnedBy(10, "13900000000")).thenReturn(false);
+
+        mockMvc.perform(post("/order/complete")
+                .requestAttr(SessionAuthFilter.CURRENT_PHONE, "13900000000")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ID\":1}"))
+                .andExpect(status().isForbidden());
+
+        verify(userOrderService, never()).completeOrder(any());
+    }
+
+    @Test
+    @DisplayName("商家成功完成订单")
+    void testCompleteOrderByMerchant() throws Exception {
+        when(businessService.isOwnedBy(10, "13900000000")).thenReturn(true);
+        when(userOrderService.completeOrder(1L)).thenReturn(true);
+
+        mockMvc.perform(post("/order/complete")
+                .requestAttr(SessionAuthFilter.CURRENT_PHONE, "13900000000")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ID\":1}"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("true"));
+    }
+}
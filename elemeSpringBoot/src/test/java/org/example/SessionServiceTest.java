@@ -0,0 +1,116 @@
+package org.example;
+
+import org.example.dto.UserProfile;
+import org.example.service.impl.SessionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 登录会话存储测试：过期、容量上限淘汰与快照恢复
+ */
+@DisplayName("登录会话存储测试")
+class SessionServiceTest {
+
+    private static SessionService service(long ttlMillis, int maxSessions, String snapshotPath) {
+        SessionService service = new SessionService();
+        ReflectionTestUtils.setField(service, "ttlMillis", ttlMillis);
+        ReflectionTestUtils.setField(service, "maxSessions", maxSessions);
+        ReflectionTestUtils.setField(service, "snapshotPath", snapshotPath);
+        return service;
+    }
+
+    private static UserProfile profile(String phoneNumber) {
+        return new UserProfile(phoneNumber, "张三", "test@example.com", "男");
+    }
+
+    private static int count(SessionService service) {
+        return ((AtomicInteger) ReflectionTestUtils.getField(service, "count")).get();
+    }
+
+    @Test
+    @DisplayName("创建后可以解析，注销后失效")
+    void testCreateResolveInvalidate() {
+        SessionService service = service(60000, 10, "");
+        String token = service.create(profile("13800000000"));
+        assertEquals("13800000000", service.resolve(token).getPhoneNumber());
+        assertNull(service.resolve("unknown"));
+        assertNull(service.resolve(null));
+
+        service.invalidate(token);
+        assertNull(service.resolve(token));
+        assertEquals(0, count(service));
+        // 重复注销不会让计数变成负数
+        service.invalidate(token);
+        assertEquals(0, count(service));
+    }
+
+    @Test
+    @DisplayName("空闲超过有效期的会话失效，定时清理回收计数")
+    void testIdleExpiry() throws InterruptedException {
+        SessionService service = service(50, 10, "");
+        String expired = service.create(profile("13800000001"));
+        service.create(profile("13800000002"));
+        Thread.sleep(80);
+
+        assertNull(service.resolve(expired));
+        assertEquals(1, count(service));
+        service.sweep();
+        assertEquals(0, count(service));
+    }
+
+    @Test
+    @DisplayName("超出容量时按创建顺序淘汰最早的会话")
+    void testCapEvictsOldest() {
+        SessionService service = service(60000, 3, "");
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tokens.add(service.create(profile("1380000000" + i)));
+            assertTrue(count(service) <= 3, "会话数不能超出上限");
+        }
+        assertNull(service.resolve(tokens.get(0)));
+        assertNull(service.resolve(tokens.get(1)));
+        for (int i = 2; i < 5; i++) {
+            assertNotNull(service.resolve(tokens.get(i)));
+        }
+        assertEquals(3, count(service));
+    }
+
+    @Test
+    @DisplayName("已注销的会话不占容量")
+    void testInvalidatedSessionFreesCapacity() {
+        SessionService service = service(60000, 2, "");
+        String first = service.create(profile("13800000001"));
+        String second = service.create(profile("13800000002"));
+        service.invalidate(first);
+        String third = service.create(profile("13800000003"));
+
+        assertNotNull(service.resolve(second));
+        assertNotNull(service.resolve(third));
+        assertEquals(2, count(service));
+    }
+
+    @Test
+    @DisplayName("停机写出快照，重启后恢复未过期的会话")
+    void testSnapshotRoundTrip(@TempDir Path dir) {
+        String path = dir.resolve("sessions.bin").toString();
+        SessionService before = service(60000, 10, path);
+        String token = before.create(new UserProfile("13800000000", null, null, null));
+        before.saveSnapshot();
+
+        SessionService after = service(60000, 10, path);
+        after.loadSnapshot();
+        UserProfile restored = after.resolve(token);
+        assertEquals("13800000000", restored.getPhoneNumber());
+        assertNull(restored.getName());
+        assertEquals(1, count(after));
+    }
+}
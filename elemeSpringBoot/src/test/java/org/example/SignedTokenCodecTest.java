@@ -0,0 +1,76 @@
+package org.example;
+
+import org.example.util.SignedTokenCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 签名登录令牌测试
+ */
+@DisplayName("签名登录令牌测试")
+class SignedTokenCodecTest {
+
+    private static final byte[] KEY_1 = "first-secret-key-0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] KEY_2 = "second-secret-key-0123456789abcde".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    @DisplayName("签发的令牌可以校验出手机号")
+    void testIssueAndVerify() {
+        SignedTokenCodec codec = new SignedTokenCodec(Map.of("k1", KEY_1), "k1");
+        String token = codec.issue("13800138000", 2000);
+        assertTrue(token.startsWith("k1.13800138000.2000."));
+        assertEquals("13800138000", codec.verify(token, 1000));
+    }
+
+    @Test
+    @DisplayName("过期令牌校验失败")
+    void testExpired() {
+        SignedTokenCodec codec = new SignedTokenCodec(Map.of("k1", KEY_1), "k1");
+        String token = codec.issue("13800138000", 2000);
+        assertNull(codec.verify(token, 2000));
+    }
+
+    @Test
+    @DisplayName("篡改手机号、过期时间或签名都会校验失败")
+    void testTampered() {
+        SignedTokenCodec codec = new SignedTokenCodec(Map.of("k1", KEY_1), "k1");
+        String token = codec.issue("13800138000", 2000);
+        assertNull(codec.verify(token.replace("13800138000", "13800138001"), 1000));
+        assertNull(codec.verify(token.replace(".2000.", ".9000."), 1000));
+        char last = token.charAt(token.length() - 1);
+        assertNull(codec.verify(token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A'), 1000));
+    }
+
+    @Test
+    @DisplayName("格式错误的令牌返回空")
+    void testMalformed() {
+        SignedTokenCodec codec = new SignedTokenCodec(Map.of("k1", KEY_1), "k1");
+        assertNull(codec.verify(null, 1000));
+        assertNull(codec.verify("", 1000));
+        assertNull(codec.verify("k1.13800138000.2000", 1000));
+        assertNull(codec.verify("k1.13800138000.abc.sig", 1000));
+        assertNull(codec.verify("k1.138.001.2000.sig", 1000));
+        assertNull(codec.verify("k1.13800138000.2000.", 1000));
+        assertNull(codec.verify("k1.13800138000.2000.***", 1000));
+    }
+
+    @Test
+    @DisplayName("密钥轮换后旧令牌仍可校验，未知密钥号校验失败")
+    void testKeyRotation() {
+        SignedTokenCodec oldCodec = new SignedTokenCodec(Map.of("k1", KEY_1), "k1");
+        String oldToken = oldCodec.issue("13800138000", 2000);
+
+        SignedTokenCodec rotated = new SignedTokenCodec(Map.of("k1", KEY_1, "k2", KEY_2), "k2");
+        String newToken = rotated.issue("13800138000", 2000);
+        assertTrue(newToken.startsWith("k2."));
+        assertEquals("13800138000", rotated.verify(oldToken, 1000));
+        assertEquals("13800138000", rotated.verify(newToken, 1000));
+
+        assertNull(oldCodec.verify(newToken, 1000));
+    }
+}
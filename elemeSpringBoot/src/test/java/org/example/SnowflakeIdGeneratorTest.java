@@ -0,0 +1,90 @@
+package org.example;
+
+import org.example.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 订单ID生成器测试
+ */
+@DisplayName("订单ID生成器测试")
+class SnowflakeIdGeneratorTest {
+
+    // JavaScript Number.MAX_SAFE_INTEGER
+    private static final long MAX_SAFE_INTEGER = (1L << 53) - 1;
+
+    @Test
+    @DisplayName("ID单调递增且在JS安全整数范围内")
+    void testMonotonicAndJsSafe() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+        long previous = 0;
+        for (int i = 0; i < 100000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "ID应该递增");
+            assertTrue(id <= MAX_SAFE_INTEGER, "ID不能超出JS安全整数范围");
+            previous = id;
+        }
+    }
+
+    @Test
+    @DisplayName("ID中可以解析出生成时间")
+    void testTimestampOf() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0);
+        long before = System.currentTimeMillis();
+        long id = generator.nextId();
+        assertTrue(SnowflakeIdGenerator.timestampOf(id) >= before);
+    }
+
+    @Test
+    @DisplayName("重启后从已发放的最大ID之后继续")
+    void testAdvancePast() {
+        // 其他节点在未来一小时发放的 ID（节点号更大、序列号为 0）
+        long future = System.currentTimeMillis() + 3_600_000L - SnowflakeIdGenerator.EPOCH;
+        long issued = (future << (SnowflakeIdGenerator.NODE_BITS + SnowflakeIdGenerator.SEQUENCE_BITS))
+                | (SnowflakeIdGenerator.MAX_NODE_ID << SnowflakeIdGenerator.SEQUENCE_BITS);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0);
+        generator.advancePast(issued);
+        long id = generator.nextId();
+        assertTrue(id > issued);
+        assertEquals(SnowflakeIdGenerator.timestampOf(issued) + 1, SnowflakeIdGenerator.timestampOf(id));
+        // 传入更早的 ID 不会让状态回退
+        generator.advancePast(0);
+        assertTrue(generator.nextId() > id);
+    }
+
+    @Test
+    @DisplayName("节点号越界时拒绝创建")
+    void testInvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+    }
+
+    @Test
+    @DisplayName("多线程并发生成不重复")
+    void testConcurrentUniqueness() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(threads * perThread, ids.size());
+    }
+}
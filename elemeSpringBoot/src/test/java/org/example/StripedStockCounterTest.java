@@ -0,0 +1,71 @@
+package org.example;
+
+import org.example.util.StripedStockCounter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分段库存计数器测试
+ */
+@DisplayName("分段库存计数器测试")
+class StripedStockCounterTest {
+
+    @Test
+    @DisplayName("库存不足时扣减失败且不改变库存")
+    void testAcquireBeyondStock() {
+        StripedStockCounter counter = new StripedStockCounter(5, 4);
+        assertTrue(counter.tryAcquire(3));
+        assertFalse(counter.tryAcquire(3));
+        assertEquals(2, counter.available());
+        assertTrue(counter.tryAcquire(2));
+        assertEquals(0, counter.available());
+    }
+
+    @Test
+    @DisplayName("跨分段凑齐库存")
+    void testAcquireAcrossStripes() {
+        // 8 个库存分散在 8 个分段中，每段只有 1 个
+        StripedStockCounter counter = new StripedStockCounter(8, 8);
+        assertTrue(counter.tryAcquire(8));
+        assertEquals(0, counter.available());
+        counter.release(3);
+        assertEquals(3, counter.available());
+    }
+
+    @Test
+    @DisplayName("高并发扣减不会超卖")
+    void testConcurrentAcquireNeverOversells() throws Exception {
+        int stock = 10000;
+        int threads = 16;
+        int attemptsPerThread = 2000;
+        StripedStockCounter counter = new StripedStockCounter(stock, threads);
+        AtomicInteger success = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (counter.tryAcquire(1)) {
+                        success.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(stock, success.get());
+        assertEquals(0, counter.available());
+    }
+}
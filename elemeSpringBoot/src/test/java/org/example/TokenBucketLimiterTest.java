@@ -0,0 +1,92 @@
+package org.example;
+
+import org.example.util.TokenBucketLimiter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 令牌桶限流测试
+ */
+@DisplayName("令牌桶限流测试")
+class TokenBucketLimiterTest {
+
+    @Test
+    @DisplayName("突发用完后拒绝，按速率补充")
+    void testBurstAndRefill() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, 1000, 100, 0);
+        assertTrue(limiter.tryAcquire("a", 0));
+        assertTrue(limiter.tryAcquire("a", 0));
+        assertTrue(limiter.tryAcquire("a", 0));
+        assertFalse(limiter.tryAcquire("a", 0));
+        assertFalse(limiter.tryAcquire("a", 999));
+        assertTrue(limiter.tryAcquire("a", 1000));
+        assertFalse(limiter.tryAcquire("a", 1000));
+        // 长时间空闲后最多补满容量
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("a", 100000));
+        }
+        assertFalse(limiter.tryAcquire("a", 100000));
+    }
+
+    @Test
+    @DisplayName("不同的键互不影响")
+    void testKeysIndependent() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1000, 100, 0);
+        assertTrue(limiter.tryAcquire("a", 0));
+        assertFalse(limiter.tryAcquire("a", 0));
+        assertTrue(limiter.tryAcquire("b", 0));
+    }
+
+    @Test
+    @DisplayName("键数量达到上限后新键共用溢出桶")
+    void testMaxKeys() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, 1000, 2, 0);
+        assertTrue(limiter.tryAcquire("a", 0));
+        assertTrue(limiter.tryAcquire("b", 0));
+        assertTrue(limiter.tryAcquire("c", 0));
+        assertTrue(limiter.tryAcquire("d", 0));
+        assertFalse(limiter.tryAcquire("e", 0));
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    @DisplayName("清理只移除已补满的桶")
+    void testSweep() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, 1000, 100, 0);
+        limiter.tryAcquire("a", 0);
+        limiter.tryAcquire("b", 0);
+        limiter.tryAcquire("b", 1500);
+        assertEquals(1, limiter.sweep(2000));
+        assertEquals(1, limiter.size());
+        // 未补满的桶保留原有余量
+        assertTrue(limiter.tryAcquire("b", 2000));
+        assertFalse(limiter.tryAcquire("b", 2000));
+    }
+
+    @Test
+    @DisplayName("并发扣减不超发")
+    void testConcurrent() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1000, 1_000_000, 100, 0);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (limiter.tryAcquire("hot", 0)) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1000, granted.get());
+    }
+}
@@ -3,6 +3,7 @@ import './assets/main.css'
 import { createApp } from 'vue'
 import { createPinia } from 'pinia'
 
+import axios from 'axios'
 import App from './App.vue'
 import router from './router'
 import ElementPlus from 'element-plus'
@@ -11,6 +12,15 @@ import 'element-plus/dist/index.css'
 import 'vant/lib/index.css'
 import 'tailwindcss/tailwind.css'
 
+// 已登录时请求携带会话令牌
+axios.interceptors.request.use((config) => {
+  const token = localStorage.getItem('token')
+  if (token && token !== 'undefined' && token !== 'null') {
+    config.headers.Authorization = `Bearer ${token}`
+  }
+  return config
+})
+
 const app = createApp(App)
 
 app.use(createPinia())